@@ -0,0 +1,86 @@
+package com.github.mikkoi.maven.plugins.enforcer.rule.propertyusage;
+
+import com.github.mikkoi.maven.plugins.enforcer.rule.propertyusage.configuration.FileSpecs;
+import com.github.mikkoi.maven.plugins.enforcer.rule.propertyusage.configuration.Templates;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the phases of the rule: discovering the files,
+ * reading the property definitions and scanning the usage files.
+ * <p>
+ * Run with e.g. {@code java -jar target/benchmarks.jar -rf json -rff results.json}
+ * and select the scale with {@code -p files=100000 -p properties=50000}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class PropertyUsageBenchmark {
+
+    private static final String PLACEHOLDER = Templates.DEFAULT_REPLACE_IN_TEMPLATE_WITH_PROPERTY_NAME;
+
+    private static final List<String> TEMPLATES = Arrays.asList(
+            "properties\\.getProperty\\(\"" + PLACEHOLDER + "\"\\)",
+            "\\$\\{" + PLACEHOLDER + "\\}"
+    );
+
+    @Param({"1"})
+    public int scanThreads;
+
+    private Set<String> allUsagesTemplates;
+
+    @Setup
+    public void setup() {
+        allUsagesTemplates = new HashSet<>();
+        TEMPLATES.forEach(tpl -> allUsagesTemplates.add(tpl.replaceAll(PLACEHOLDER, Templates.PROPERTY_NAME_REGEXP)));
+    }
+
+    @Benchmark
+    public Collection<String> getAbsoluteFilenames(final SyntheticTree tree) {
+        return FileSpecs.getAbsoluteFilenames(
+                Collections.singleton(SyntheticTree.SOURCE_FILE_SPEC), tree.root, SyntheticTree.LOG);
+    }
+
+    @Benchmark
+    public Map<String, Set<PropertyDefinition>> readPropertiesFromFilesGetDefinitions(final SyntheticTree tree)
+            throws IOException {
+        return new PropertyFiles(SyntheticTree.LOG, StandardCharsets.UTF_8)
+                .readPropertiesFromFilesGetDefinitions(tree.propertyFilenames);
+    }
+
+    @Benchmark
+    public Set<String> readDefinedUsagesFromFiles(final SyntheticTree tree) throws IOException {
+        final UsageMatcher matcher = new UsageMatcher(TEMPLATES, PLACEHOLDER, tree.propertyNames);
+        return new UsageFiles(SyntheticTree.LOG, scanThreads)
+                .readDefinedUsagesFromFiles(tree.usageFilenames, matcher, StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public Collection<?> readAllUsagesFromFiles(final SyntheticTree tree) throws IOException {
+        return new UsageFiles(SyntheticTree.LOG, scanThreads)
+                .readAllUsagesFromFiles(tree.usageFilenames, allUsagesTemplates, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,198 @@
+package com.github.mikkoi.maven.plugins.enforcer.rule.propertyusage;
+
+import org.apache.maven.enforcer.rule.api.EnforcerLogger;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Generated project tree with properties files and Java sources using the properties.
+ * <p>
+ * The properties are spread over properties files, {@value #PROPERTIES_PER_FILE} in each.
+ * Every source file uses {@value #USAGES_PER_FILE} properties, chosen so that with enough
+ * files every property is used. The rest of the source is filler code.
+ * The tree is the same for the same parameters.
+ */
+@State(Scope.Benchmark)
+public class SyntheticTree {
+
+    static final int PROPERTIES_PER_FILE = 500;
+
+    static final int USAGES_PER_FILE = 3;
+
+    static final int SOURCE_FILES_PER_PACKAGE = 1000;
+
+    static final String PROPERTIES_FILE_SPEC = "src/main/resources/**/*.properties";
+
+    static final String SOURCE_FILE_SPEC = "src/main/java/**/*.java";
+
+    static final EnforcerLogger LOG = new SilentLogger();
+
+    @Param({"100", "10000", "100000"})
+    public int files;
+
+    @Param({"10", "1000", "50000"})
+    public int properties;
+
+    Path root;
+
+    List<String> propertyNames;
+
+    List<String> propertyFilenames;
+
+    List<String> usageFilenames;
+
+    @Setup(Level.Trial)
+    public void generate() throws IOException {
+        root = Files.createTempDirectory("property-usage-benchmark");
+        propertyNames = new ArrayList<>(properties);
+        for (int i = 0; i < properties; i++) {
+            propertyNames.add("synthetic.property-" + i + ".value");
+        }
+        propertyFilenames = writePropertiesFiles();
+        usageFilenames = writeSourceFiles();
+    }
+
+    @TearDown(Level.Trial)
+    public void delete() throws IOException {
+        Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(final Path file, final BasicFileAttributes attrs) throws IOException {
+                Files.delete(file);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(final Path dir, final IOException exc) throws IOException {
+                Files.delete(dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private List<String> writePropertiesFiles() throws IOException {
+        final Path dir = Files.createDirectories(root.resolve("src/main/resources/config"));
+        final List<String> filenames = new ArrayList<>();
+        for (int first = 0; first < properties; first += PROPERTIES_PER_FILE) {
+            final Path file = dir.resolve("synthetic-" + first / PROPERTIES_PER_FILE + ".properties");
+            try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                out.write("# Generated properties " + first + "-\n\n");
+                for (int i = first; i < Math.min(properties, first + PROPERTIES_PER_FILE); i++) {
+                    if (i % 10 == 0) {
+                        out.write("# Section " + i + "\n");
+                    }
+                    out.write(propertyNames.get(i) + " = Value of property " + i + "\n");
+                }
+            }
+            filenames.add(file.toAbsolutePath().toString());
+        }
+        return filenames;
+    }
+
+    private List<String> writeSourceFiles() throws IOException {
+        final List<String> filenames = new ArrayList<>();
+        for (int i = 0; i < files; i++) {
+            final String packageName = "synthetic.p" + i / SOURCE_FILES_PER_PACKAGE;
+            final Path dir = Files.createDirectories(root.resolve("src/main/java/" + packageName.replace('.', '/')));
+            final Path file = dir.resolve("Source" + i + ".java");
+            try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                out.write("package " + packageName + ";\n\n");
+                out.write("import java.util.Properties;\n\n");
+                out.write("/**\n * Generated source " + i + ".\n */\n");
+                out.write("public class Source" + i + " {\n\n");
+                out.write("    private final Properties properties = new Properties();\n\n");
+                for (int u = 0; u < USAGES_PER_FILE; u++) {
+                    final String name = propertyNames.get((i * USAGES_PER_FILE + u) % properties);
+                    out.write("    public String get" + u + "() {\n");
+                    out.write("        final String description = \"Not a property: " + i + "-" + u + "\";\n");
+                    out.write("        return properties.getProperty(\"" + name + "\") + description;\n");
+                    out.write("    }\n\n");
+                }
+                out.write("    @Override\n    public String toString() {\n");
+                out.write("        return \"Source" + i + "[\" + properties + \"]\";\n    }\n}\n");
+            }
+            filenames.add(file.toAbsolutePath().toString());
+        }
+        return filenames;
+    }
+
+    /**
+     * Logger which discards everything, so that logging does not dominate the results.
+     */
+    private static final class SilentLogger implements EnforcerLogger {
+        @Override
+        public void warnOrError(final CharSequence message) {
+        }
+
+        @Override
+        public void warnOrError(final Supplier<CharSequence> messageSupplier) {
+        }
+
+        @Override
+        public boolean isDebugEnabled() {
+            return false;
+        }
+
+        @Override
+        public void debug(final CharSequence message) {
+        }
+
+        @Override
+        public void debug(final Supplier<CharSequence> messageSupplier) {
+        }
+
+        @Override
+        public boolean isInfoEnabled() {
+            return false;
+        }
+
+        @Override
+        public void info(final CharSequence message) {
+        }
+
+        @Override
+        public void info(final Supplier<CharSequence> messageSupplier) {
+        }
+
+        @Override
+        public boolean isWarnEnabled() {
+            return false;
+        }
+
+        @Override
+        public void warn(final CharSequence message) {
+        }
+
+        @Override
+        public void warn(final Supplier<CharSequence> messageSupplier) {
+        }
+
+        @Override
+        public boolean isErrorEnabled() {
+            return false;
+        }
+
+        @Override
+        public void error(final CharSequence message) {
+        }
+
+        @Override
+        public void error(final Supplier<CharSequence> messageSupplier) {
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package com.github.mikkoi.maven.plugins.enforcer.rule.propertyusage;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Property definitions in compact form, for very large numbers of properties.
+ * <p>
+ * Every key is stored once, in an open addressing hash table of key ids.
+ * A definition is three ints: the file id, the line number and the next definition
+ * of the same key. File names are stored once per file, and values not at all.
+ * The map and its sets are read-only views which create the {@link PropertyDefinition}s
+ * when iterated; their values are read from the file when asked for.
+ */
+final class DefinitionTable extends AbstractMap<String, Set<PropertyDefinition>> {
+
+    private static final int NONE = -1;
+
+    private @NonNull String @NonNull [] keys = new String[16];
+
+    /**
+     * Hash table of key id + 1, 0 for an empty slot. Size is a power of two.
+     */
+    private int @NonNull [] slots = new int[32];
+
+    private int keyCount;
+
+    /** Number of definitions per key id. */
+    private int @NonNull [] counts = new int[16];
+
+    /** First definition per key id. */
+    private int @NonNull [] firstDefinitions = new int[16];
+
+    private int definitionCount;
+
+    private int @NonNull [] definitionFiles = new int[16];
+
+    private int @NonNull [] definitionLines = new int[16];
+
+    private int @NonNull [] nextDefinitions = new int[16];
+
+    private final @NonNull List<String> files = new ArrayList<>();
+
+    private final @NonNull Map<String, Integer> fileIds = new HashMap<>();
+
+    /**
+     * Reads the value of a definition from its file: filename, line number and key.
+     */
+    private final @NonNull Function<PropertyDefinition, String> valueReader;
+
+    /**
+     * @param valueReader Reads the value of a definition from its file.
+     */
+    DefinitionTable(final @NonNull Function<PropertyDefinition, String> valueReader) {
+        this.valueReader = valueReader;
+    }
+
+    /**
+     * @param filename File name.
+     * @return Id of the file, the same for the same name.
+     */
+    int fileId(final @NonNull String filename) {
+        return fileIds.computeIfAbsent(filename, name -> {
+            files.add(name);
+            return files.size() - 1;
+        });
+    }
+
+    /**
+     * @param key        Property name.
+     * @param fileId     Id of the file it is defined in, from {@link #fileId(String)}.
+     * @param lineNumber Line it is defined on.
+     */
+    void add(final @NonNull String key, final int fileId, final int lineNumber) {
+        int id = find(key);
+        if (id == NONE) {
+            id = addKey(key);
+        }
+        if (definitionCount == definitionFiles.length) {
+            final int capacity = definitionCount * 2;
+            definitionFiles = Arrays.copyOf(definitionFiles, capacity);
+            definitionLines = Arrays.copyOf(definitionLines, capacity);
+            nextDefinitions = Arrays.copyOf(nextDefinitions, capacity);
+        }
+        definitionFiles[definitionCount] = fileId;
+        definitionLines[definitionCount] = lineNumber;
+        nextDefinitions[definitionCount] = firstDefinitions[id];
+        firstDefinitions[id] = definitionCount;
+        counts[id]++;
+        definitionCount++;
+    }
+
+    private int addKey(final @NonNull String key) {
+        if (keyCount == keys.length) {
+            keys = Arrays.copyOf(keys, keyCount * 2);
+            counts = Arrays.copyOf(counts, keyCount * 2);
+            firstDefinitions = Arrays.copyOf(firstDefinitions, keyCount * 2);
+        }
+        final int id = keyCount++;
+        keys[id] = key;
+        firstDefinitions[id] = NONE;
+        if (keyCount * 2 > slots.length) {
+            slots = new int[slots.length * 2];
+            for (int i = 0; i < id; i++) {
+                slots[freeSlot(keys[i])] = i + 1;
+            }
+        }
+        slots[freeSlot(key)] = id + 1;
+        return id;
+    }
+
+    private int freeSlot(final @NonNull String key) {
+        final int mask = slots.length - 1;
+        int slot = spread(key.hashCode()) & mask;
+        while (slots[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * @return Key id, or {@link #NONE} if not defined.
+     */
+    private int find(final @NonNull Object key) {
+        final int mask = slots.length - 1;
+        for (int slot = spread(key.hashCode()) & mask; slots[slot] != 0; slot = (slot + 1) & mask) {
+            final int id = slots[slot] - 1;
+            if (keys[id].equals(key)) {
+                return id;
+            }
+        }
+        return NONE;
+    }
+
+    private static int spread(final int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * @return Number of definitions, counting every definition of a key.
+     */
+    int getDefinitionCount() {
+        return definitionCount;
+    }
+
+    @Override
+    public int size() {
+        return keyCount;
+    }
+
+    @Override
+    public boolean containsKey(final @Nullable Object key) {
+        return key != null && find(key) != NONE;
+    }
+
+    @Override
+    public @Nullable Set<PropertyDefinition> get(final @Nullable Object key) {
+        final int id = key == null ? NONE : find(key);
+        return id == NONE ? null : new Definitions(id);
+    }
+
+    @Override
+    public @NonNull Set<Entry<String, Set<PropertyDefinition>>> entrySet() {
+        return new AbstractSet<Entry<String, Set<PropertyDefinition>>>() {
+            @Override
+            public int size() {
+                return keyCount;
+            }
+
+            @Override
+            public @NonNull Iterator<Entry<String, Set<PropertyDefinition>>> iterator() {
+                return new Iterator<Entry<String, Set<PropertyDefinition>>>() {
+                    private int id;
+
+                    @Override
+                    public boolean hasNext() {
+                        return id < keyCount;
+                    }
+
+                    @Override
+                    public @NonNull Entry<String, Set<PropertyDefinition>> next() {
+                        if (!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        final int current = id++;
+                        return new SimpleImmutableEntry<>(keys[current], new Definitions(current));
+                    }
+                };
+            }
+        };
+    }
+
+    /**
+     * The definitions of one key.
+     */
+    private final class Definitions extends AbstractSet<PropertyDefinition> {
+
+        private final int id;
+
+        Definitions(final int id) {
+            this.id = id;
+        }
+
+        @Override
+        public int size() {
+            return counts[id];
+        }
+
+        @Override
+        public @NonNull Iterator<PropertyDefinition> iterator() {
+            return new Iterator<PropertyDefinition>() {
+                private int definition = firstDefinitions[id];
+
+                @Override
+                public boolean hasNext() {
+                    return definition != NONE;
+                }
+
+                @Override
+                public @NonNull PropertyDefinition next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    final int current = definition;
+                    definition = nextDefinitions[current];
+                    return new PropertyDefinition(keys[id], files.get(definitionFiles[current]),
+                            definitionLines[current], valueReader);
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package com.github.mikkoi.maven.plugins.enforcer.rule.propertyusage;
+
+import org.apache.maven.enforcer.rule.api.EnforcerLogger;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Read files into memory ahead of their scanning, in a pipeline.
+ * <p>
+ * Reading threads read the files, and the scanning threads take them in the order they were read.
+ * A file is read only when there is room for it, so at most the configured number of files
+ * are in memory at a time, and at most as many reads are issued at a time.
+ * With virtual threads, e.g. thousands of reads can wait for high-latency storage at once.
+ * Virtual threads are used only when the JDK has them, otherwise the reading threads
+ * are platform threads, and at most {@link #MAX_PLATFORM_READ_THREADS} of them.
+ */
+final class FileReadAhead {
+
+    /**
+     * Larger files are not read ahead, the scanning thread reads them itself.
+     */
+    static final long MAX_READ_AHEAD_BYTES = 1024L * 1024L;
+
+    static final int MAX_PLATFORM_READ_THREADS = 64;
+
+    /**
+     * Scan of one file.
+     */
+    @FunctionalInterface
+    interface FileScan {
+        /**
+         * @param filename File name.
+         * @param content  Content of the file, or null if it was not read ahead.
+         */
+        void scan(@NonNull String filename, byte @Nullable [] content) throws IOException;
+    }
+
+    /**
+     * A file read ahead. Content is null for a file too large to read ahead,
+     * or if reading failed, and then the scanning thread reads it itself.
+     */
+    private static final class ReadFile {
+        private final @NonNull String filename;
+        private final byte @Nullable [] content;
+
+        ReadFile(final @NonNull String filename, final byte @Nullable [] content) {
+            this.filename = filename;
+            this.content = content;
+        }
+    }
+
+    /**
+     * Marks the end of the files for one scanning thread.
+     */
+    private static final ReadFile END_OF_FILES = new ReadFile("", null);
+
+    private final @NonNull EnforcerLogger log;
+
+    private final int readAhead;
+
+    private final int readThreads;
+
+    private final boolean virtualThreads;
+
+    /**
+     * @param log            Logger.
+     * @param readAhead      Number of files in memory at a time.
+     * @param readThreads    Number of reading threads.
+     * @param virtualThreads Read with virtual threads if the JDK has them.
+     */
+    FileReadAhead(final @NonNull EnforcerLogger log, final int readAhead, final int readThreads, final boolean virtualThreads) {
+        this.log = log;
+        this.readAhead = Math.max(1, readAhead);
+        this.readThreads = Math.max(1, readThreads);
+        this.virtualThreads = virtualThreads;
+    }
+
+    /**
+     * Run the scan for every file.
+     * If a scan fails, the remaining files are skipped and the first error is thrown.
+     *
+     * @param filenames   File names to scan.
+     * @param scanThreads Number of scanning threads.
+     * @param done        When this returns true, the remaining files are skipped.
+     * @param fileScan    Scan to run for every file.
+     */
+    void forEachFile(
+            final @NonNull List<String> filenames,
+            final int scanThreads,
+            final @NonNull BooleanSupplier done,
+            final @NonNull FileScan fileScan)
+            throws IOException {
+        final ThreadFactory virtualThreadFactory = virtualThreads ? virtualThreadFactory() : null;
+        if (virtualThreads && virtualThreadFactory == null) {
+            log.debug("Virtual threads are not available in this JDK, reading with platform threads.");
+        }
+        final int readers = Math.min(filenames.size(), virtualThreadFactory == null
+                ? Math.min(readThreads, MAX_PLATFORM_READ_THREADS) : readThreads);
+        log.debug(() -> "Scanning " + filenames.size() + " files with " + scanThreads + " threads, reading "
+                + readAhead + " files ahead with " + readers + (virtualThreadFactory == null ? "" : " virtual")
+                + " threads.");
+        final Semaphore room = new Semaphore(readAhead);
+        final BlockingQueue<ReadFile> queue = new LinkedBlockingQueue<>();
+        final AtomicInteger next = new AtomicInteger();
+        final AtomicInteger readersLeft = new AtomicInteger(readers);
+        final AtomicBoolean failed = new AtomicBoolean();
+        final ExecutorService readPool = virtualThreadFactory == null
+                ? Executors.newFixedThreadPool(readers)
+                : Executors.newFixedThreadPool(readers, virtualThreadFactory);
+        final ExecutorService scanPool = Executors.newFixedThreadPool(scanThreads);
+        try {
+            final List<Future<?>> readTasks = new ArrayList<>();
+            for (int r = 0; r < readers; r++) {
+                readTasks.add(readPool.submit(() -> {
+                    try {
+                        for (int i = next.getAndIncrement(); i < filenames.size() && !failed.get() && !done.getAsBoolean();
+                             i = next.getAndIncrement()) {
+                            room.acquire();
+                            final String filename = filenames.get(i);
+                            queue.put(new ReadFile(filename, readContent(filename)));
+                        }
+                    } finally {
+                        if (readersLeft.decrementAndGet() == 0) {
+                            for (int s = 0; s < scanThreads; s++) {
+                                queue.put(END_OF_FILES);
+                            }
+                        }
+                    }
+                    return null;
+                }));
+            }
+            final List<Future<?>> scanTasks = new ArrayList<>();
+            for (int s = 0; s < scanThreads; s++) {
+                scanTasks.add(scanPool.submit(() -> {
+                    Exception error = null;
+                    // Keep taking files after a failure, so that the reading threads are not left waiting.
+                    for (ReadFile file = queue.take(); file != END_OF_FILES; file = queue.take()) {
+                        try {
+                            if (!failed.get() && !done.getAsBoolean()) {
+                                fileScan.scan(file.filename, file.content);
+                            }
+                        } catch (IOException | RuntimeException e) {
+                            failed.set(true);
+                            error = e;
+                        } finally {
+                            room.release();
+                        }
+                    }
+                    if (error != null) {
+                        throw error;
+                    }
+                    return null;
+                }));
+            }
+            // Scanning threads first: if they all stop, the reading threads would wait forever.
+            for (final Future<?> task : scanTasks) {
+                task.get();
+            }
+            for (final Future<?> task : readTasks) {
+                task.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while scanning files");
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException(cause);
+        } finally {
+            scanPool.shutdownNow();
+            readPool.shutdownNow();
+        }
+    }
+
+    /**
+     * @return Content of the file, or null if it is too large to read ahead or cannot be read now.
+     */
+    private static byte @Nullable [] readContent(final @NonNull String filename) {
+        final Path path = Paths.get(filename);
+        try {
+            if (Files.size(path) > MAX_READ_AHEAD_BYTES) {
+                return null;
+            }
+            return Files.readAllBytes(path);
+        } catch (IOException e) {
+            // The scanning thread reads the file again and reports the error.
+            return null;
+        }
+    }
+
+    /**
+     * The factory of {@code Thread.ofVirtual()}, looked up at runtime
+     * since the plugin is built for JDKs without virtual threads.
+     *
+     * @return Factory of virtual threads, or null if the JDK does not have them.
+     */
+    static @Nullable ThreadFactory virtualThreadFactory() {
+        try {
+            final Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            return (ThreadFactory) Class.forName("java.lang.Thread$Builder").getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // Not available, or a preview feature which is not enabled.
+            return null;
+        }
+    }
+}
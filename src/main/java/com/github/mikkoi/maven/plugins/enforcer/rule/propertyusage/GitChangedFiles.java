@@ -0,0 +1,156 @@
+package com.github.mikkoi.maven.plugins.enforcer.rule.propertyusage;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Files which differ from a base revision in the local git repository.
+ * <p>
+ * The files are listed with the git executable from the local repository only,
+ * nothing is fetched. A file differs if it has been changed, added or removed
+ * in the working tree (committed or not) compared to the base revision,
+ * or if it is untracked and not ignored.
+ * Files which are not in the base revision, e.g. ignored generated files, are never
+ * listed as changed; {@link #getTrackedFiles()} tells which files the changes cover.
+ * The base revision is resolved to its commit id, so that a cache made
+ * for one commit is not taken for another one the same branch later points to.
+ */
+final class GitChangedFiles {
+
+    private static final String GIT = "git";
+
+    private final @NonNull String revision;
+
+    private final @NonNull Set<String> files;
+
+    private final @NonNull Set<String> trackedFiles;
+
+    private GitChangedFiles(
+            final @NonNull String revision,
+            final @NonNull Set<String> files,
+            final @NonNull Set<String> trackedFiles) {
+        this.revision = revision;
+        this.files = files;
+        this.trackedFiles = trackedFiles;
+    }
+
+    /**
+     * @param dir     Directory inside the working tree.
+     * @param baseRef Base revision, e.g. a branch, a tag or a commit id.
+     * @return The commit id of the base revision, its files and the files changed since.
+     * @throws IOException If git cannot be run, the directory is not in a git working tree
+     *                     or the revision is unknown.
+     */
+    static @NonNull GitChangedFiles since(final @NonNull Path dir, final @NonNull String baseRef) throws IOException {
+        final Path workDir = dir.toAbsolutePath();
+        final String revision = new String(git(workDir, "rev-parse", "--verify", "--quiet", baseRef + "^{commit}"),
+                StandardCharsets.UTF_8).trim();
+        // Relative path to the top of the working tree, so that the file names keep the prefix of the directory.
+        final String cdup = new String(git(workDir, "rev-parse", "--show-cdup"), StandardCharsets.UTF_8).trim();
+        final Path topLevel = workDir.resolve(cdup).normalize();
+        final Set<String> changed = new HashSet<>();
+        for (final String name : split(git(workDir, "diff", "--name-only", "--no-renames", "-z", revision, "--"))) {
+            changed.add(topLevel.resolve(name).toString());
+        }
+        for (final String name : split(git(topLevel, "ls-files", "--others", "--exclude-standard", "-z"))) {
+            changed.add(topLevel.resolve(name).toString());
+        }
+        final Set<String> tracked = new HashSet<>();
+        for (final String name : split(git(topLevel, "ls-tree", "-r", "-z", "--name-only", "--full-tree", revision))) {
+            tracked.add(topLevel.resolve(name).toString());
+        }
+        return new GitChangedFiles(revision, changed, tracked);
+    }
+
+    /**
+     * @return Commit id of the base revision.
+     */
+    @NonNull String getRevision() {
+        return revision;
+    }
+
+    /**
+     * @return Absolute names of the changed files, under the same path prefix as the directory.
+     */
+    @NonNull Set<String> getFiles() {
+        return files;
+    }
+
+    /**
+     * @return Absolute names of the files in the base revision, under the same path prefix as the directory.
+     */
+    @NonNull Set<String> getTrackedFiles() {
+        return trackedFiles;
+    }
+
+    /**
+     * Run git and return its output.
+     */
+    private static byte @NonNull [] git(final @NonNull Path workDir, final @NonNull String... args) throws IOException {
+        final List<String> command = new ArrayList<>();
+        command.add(GIT);
+        command.add("--no-optional-locks");
+        command.addAll(Arrays.asList(args));
+        final File errors = File.createTempFile("property-usage-git", ".err");
+        try {
+            final Process process = new ProcessBuilder(command)
+                    .directory(workDir.toFile())
+                    .redirectError(errors)
+                    .start();
+            process.getOutputStream().close();
+            final byte[] output = readAll(process.getInputStream());
+            final int exitCode = process.waitFor();
+            if (exitCode != 0) {
+                throw new IOException("Command " + command + " failed with exit code " + exitCode + ": "
+                        + new String(Files.readAllBytes(errors.toPath()), StandardCharsets.UTF_8).trim());
+            }
+            return output;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while running " + command, e);
+        } finally {
+            Files.deleteIfExists(errors.toPath());
+        }
+    }
+
+    private static byte @NonNull [] readAll(final @NonNull InputStream in) throws IOException {
+        try (InputStream input = in) {
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[8192];
+            int read;
+            while ((read = input.read(buffer)) > 0) {
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        }
+    }
+
+    /**
+     * Split NUL terminated names.
+     */
+    private static @NonNull List<String> split(final byte @NonNull [] output) {
+        final List<String> names = new ArrayList<>();
+        int start = 0;
+        for (int i = 0; i < output.length; i++) {
+            if (output[i] == 0) {
+                if (i > start) {
+                    names.add(new String(output, start, i - start, StandardCharsets.UTF_8));
+                }
+                start = i + 1;
+            }
+        }
+        return names;
+    }
+}
@@ -0,0 +1,171 @@
+package com.github.mikkoi.maven.plugins.enforcer.rule.propertyusage;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Aho-Corasick automaton for finding any number of literal keywords
+ * from a text in one pass.
+ * <p>
+ * The automaton is immutable after construction and can be shared between threads.
+ */
+final class KeywordAutomaton {
+
+    /**
+     * Callback for keyword hits.
+     */
+    @FunctionalInterface
+    interface Hit {
+        /**
+         * @param keyword Index of the keyword in the list given to the constructor.
+         * @param end     Index in the text right after the last character of the keyword.
+         */
+        void found(int keyword, int end);
+    }
+
+    private static final int ROOT = 0;
+
+    /** Edges of a state without children, shared as the arrays are replaced, not changed, when a child is added. */
+    private static final char[] NO_LABELS = new char[0];
+
+    private static final int[] NO_TARGETS = new int[0];
+
+    /** Sorted edge labels of each state. */
+    private final char[][] labels;
+
+    /** Edge targets of each state, in the same order as labels. */
+    private final int[][] targets;
+
+    /** Failure link of each state. */
+    private final int[] fail;
+
+    /** Keyword ending in each state, or -1. */
+    private final int[] output;
+
+    /** Nearest state in the failure chain which has an output, or -1. */
+    private final int[] dictionary;
+
+    private int states;
+
+    /**
+     * @param keywords Keywords to find. Empty keywords are ignored.
+     */
+    KeywordAutomaton(final @NonNull List<String> keywords) {
+        int capacity = 1;
+        for (final String keyword : keywords) {
+            capacity += keyword.length();
+        }
+        labels = new char[capacity][];
+        targets = new int[capacity][];
+        fail = new int[capacity];
+        output = new int[capacity];
+        dictionary = new int[capacity];
+        Arrays.fill(output, -1);
+        Arrays.fill(dictionary, -1);
+        states = 1;
+        labels[ROOT] = NO_LABELS;
+        targets[ROOT] = NO_TARGETS;
+        for (int i = 0; i < keywords.size(); i++) {
+            final String keyword = keywords.get(i);
+            if (keyword.isEmpty()) {
+                continue;
+            }
+            int state = ROOT;
+            for (int j = 0; j < keyword.length(); j++) {
+                final char c = keyword.charAt(j);
+                int next = child(state, c);
+                if (next < 0) {
+                    next = addChild(state, c);
+                }
+                state = next;
+            }
+            output[state] = i;
+        }
+        buildFailureLinks();
+    }
+
+    /**
+     * Feed the text through the automaton and report every keyword occurrence.
+     *
+     * @param text Text to search.
+     * @param hit  Called for each keyword occurrence.
+     */
+    void match(final @NonNull CharSequence text, final @NonNull Hit hit) {
+        int state = ROOT;
+        final int length = text.length();
+        for (int i = 0; i < length; i++) {
+            state = step(state, text.charAt(i));
+            int out = output[state] >= 0 ? state : dictionary[state];
+            while (out >= 0) {
+                hit.found(output[out], i + 1);
+                out = dictionary[out];
+            }
+        }
+    }
+
+    private int step(final int from, final char c) {
+        int state = from;
+        while (true) {
+            final int next = child(state, c);
+            if (next >= 0) {
+                return next;
+            }
+            if (state == ROOT) {
+                return ROOT;
+            }
+            state = fail[state];
+        }
+    }
+
+    private int child(final int state, final char c) {
+        final int idx = Arrays.binarySearch(labels[state], c);
+        return idx >= 0 ? targets[state][idx] : -1;
+    }
+
+    private int addChild(final int state, final char c) {
+        final int created = states++;
+        labels[created] = NO_LABELS;
+        targets[created] = NO_TARGETS;
+        final char[] oldLabels = labels[state];
+        final int[] oldTargets = targets[state];
+        final int pos = -(Arrays.binarySearch(oldLabels, c) + 1);
+        final char[] newLabels = new char[oldLabels.length + 1];
+        final int[] newTargets = new int[oldTargets.length + 1];
+        System.arraycopy(oldLabels, 0, newLabels, 0, pos);
+        System.arraycopy(oldTargets, 0, newTargets, 0, pos);
+        newLabels[pos] = c;
+        newTargets[pos] = created;
+        System.arraycopy(oldLabels, pos, newLabels, pos + 1, oldLabels.length - pos);
+        System.arraycopy(oldTargets, pos, newTargets, pos + 1, oldTargets.length - pos);
+        labels[state] = newLabels;
+        targets[state] = newTargets;
+        return created;
+    }
+
+    private void buildFailureLinks() {
+        final Deque<Integer> queue = new ArrayDeque<>();
+        for (final int child : targets[ROOT]) {
+            fail[child] = ROOT;
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            final int state = queue.poll();
+            for (int i = 0; i < labels[state].length; i++) {
+                final char c = labels[state][i];
+                final int child = targets[state][i];
+                int f = fail[state];
+                while (f != ROOT && child(f, c) < 0) {
+                    f = fail[f];
+                }
+                final int fc = child(f, c);
+                fail[child] = fc >= 0 && fc != child ? fc : ROOT;
+                dictionary[child] = output[fail[child]] >= 0 ? fail[child] : dictionary[fail[child]];
+                queue.add(child);
+            }
+        }
+    }
+}
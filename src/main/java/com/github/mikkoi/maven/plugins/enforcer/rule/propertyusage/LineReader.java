@@ -0,0 +1,257 @@
+package com.github.mikkoi.maven.plugins.enforcer.rule.propertyusage;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Read a file line by line without creating a String for every line.
+ * <p>
+ * The characters are decoded into one reusable buffer and the current line
+ * is a view into that buffer. The buffer grows only if a line does not fit in it,
+ * so the memory needed is bounded by the longest line, not by the size of the file.
+ * <p>
+ * Lines are terminated like in {@link Files#readAllLines(Path, Charset)}:
+ * by '\n', '\r' or "\r\n". The terminator is not part of the line.
+ */
+final class LineReader implements LineSource {
+
+    private static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    private final @NonNull Reader reader;
+
+    private char @NonNull [] buffer;
+
+    /**
+     * Start of the next line in the buffer.
+     */
+    private int position;
+
+    /**
+     * End of the decoded characters in the buffer.
+     */
+    private int limit;
+
+    private boolean endOfInput;
+
+    /**
+     * Previous line ended with '\r', skip '\n' if it follows.
+     */
+    private boolean skipLineFeed;
+
+    private int lineNumber;
+
+    private final @NonNull Line line = new Line();
+
+    /**
+     * Counts the bytes read from the file, null if reading from a plain Reader.
+     */
+    private final @Nullable CountingInputStream counter;
+
+    /**
+     * @param reader     Reader to read the characters from.
+     * @param bufferSize Initial size of the buffer.
+     */
+    LineReader(final @NonNull Reader reader, final int bufferSize) {
+        this(reader, bufferSize, null);
+    }
+
+    private LineReader(final @NonNull Reader reader, final int bufferSize, final @Nullable CountingInputStream counter) {
+        this.reader = reader;
+        this.buffer = new char[Math.max(1, bufferSize)];
+        this.counter = counter;
+    }
+
+    /**
+     * Open a file for reading. Malformed input for the charset is an error,
+     * as in {@link Files#readAllLines(Path, Charset)}.
+     *
+     * @param path    File to read.
+     * @param charset Character set of the file.
+     * @return Reader for the file.
+     */
+    static @NonNull LineReader open(final @NonNull Path path, final @NonNull Charset charset) throws IOException {
+        final CountingInputStream in = new CountingInputStream(Files.newInputStream(path));
+        return new LineReader(new InputStreamReader(in, charset.newDecoder()), DEFAULT_BUFFER_SIZE, in);
+    }
+
+    /**
+     * Read the content of a file already in memory.
+     *
+     * @param content Bytes of the file.
+     * @param charset Character set of the file.
+     * @return Reader for the content.
+     */
+    static @NonNull LineReader open(final byte @NonNull [] content, final @NonNull Charset charset) {
+        final CountingInputStream in = new CountingInputStream(new ByteArrayInputStream(content));
+        return new LineReader(new InputStreamReader(in, charset.newDecoder()), DEFAULT_BUFFER_SIZE, in);
+    }
+
+    @Override
+    public @Nullable CharSequence readLine() throws IOException {
+        if (skipLineFeed) {
+            if (position == limit && !fill()) {
+                return null;
+            }
+            if (buffer[position] == '\n') {
+                position++;
+            }
+            skipLineFeed = false;
+        }
+        int scan = position;
+        while (true) {
+            for (; scan < limit; scan++) {
+                final char c = buffer[scan];
+                if (c == '\n' || c == '\r') {
+                    line.set(position, scan);
+                    skipLineFeed = c == '\r';
+                    position = scan + 1;
+                    lineNumber++;
+                    return line;
+                }
+            }
+            final int scanned = scan - position;
+            if (!fill()) {
+                if (position == limit) {
+                    return null;
+                }
+                line.set(position, limit);
+                position = limit;
+                lineNumber++;
+                return line;
+            }
+            scan = position + scanned;
+        }
+    }
+
+    @Override
+    public int getLineNumber() {
+        return lineNumber;
+    }
+
+    /**
+     * @return Number of bytes read from the file so far. The decoder reads ahead,
+     * so this can be more than the lines returned. 0 if not reading from a file.
+     */
+    @Override
+    public long getBytesRead() {
+        final CountingInputStream in = counter;
+        return in == null ? 0 : in.count;
+    }
+
+    /**
+     * Move the unread characters to the start of the buffer
+     * and read more after them. Grow the buffer if it is full.
+     *
+     * @return false if there is nothing more to read.
+     */
+    private boolean fill() throws IOException {
+        if (endOfInput) {
+            return false;
+        }
+        if (position > 0) {
+            System.arraycopy(buffer, position, buffer, 0, limit - position);
+            limit -= position;
+            position = 0;
+        }
+        if (limit == buffer.length) {
+            buffer = Arrays.copyOf(buffer, buffer.length * 2);
+        }
+        final int read = reader.read(buffer, limit, buffer.length - limit);
+        if (read < 0) {
+            endOfInput = true;
+            return false;
+        }
+        limit += read;
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    /**
+     * The current line as a view into the buffer.
+     */
+    private final class Line implements CharSequence {
+
+        private int start;
+
+        private int end;
+
+        void set(final int lineStart, final int lineEnd) {
+            start = lineStart;
+            end = lineEnd;
+        }
+
+        @Override
+        public int length() {
+            return end - start;
+        }
+
+        @Override
+        public char charAt(final int index) {
+            if (index < 0 || index >= end - start) {
+                throw new IndexOutOfBoundsException("index " + index + ", length " + (end - start));
+            }
+            return buffer[start + index];
+        }
+
+        /**
+         * @return A copy, not a view, so that it stays valid after the next line is read.
+         */
+        @Override
+        public @NonNull CharSequence subSequence(final int from, final int to) {
+            if (from < 0 || to > end - start || from > to) {
+                throw new IndexOutOfBoundsException("from " + from + ", to " + to + ", length " + (end - start));
+            }
+            return new String(buffer, start + from, to - from);
+        }
+
+        @Override
+        public @NonNull String toString() {
+            return new String(buffer, start, end - start);
+        }
+    }
+
+    /**
+     * Count the bytes read from the stream.
+     */
+    private static final class CountingInputStream extends FilterInputStream {
+
+        private long count;
+
+        CountingInputStream(final @NonNull InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            final int b = super.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(final byte @NonNull [] b, final int off, final int len) throws IOException {
+            final int read = super.read(b, off, len);
+            if (read > 0) {
+                count += read;
+            }
+            return read;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.github.mikkoi.maven.plugins.enforcer.rule.propertyusage;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Lines of a file, read one at a time.
+ */
+interface LineSource extends Closeable {
+
+    /**
+     * Read the next line, without the line terminator.
+     * The returned line may be valid only until the next call.
+     * Use {@link Object#toString()} to keep it.
+     *
+     * @return The line, or null at the end of the input.
+     */
+    @Nullable CharSequence readLine() throws IOException;
+
+    /**
+     * @return Number of the line last read, starting from 1.
+     */
+    int getLineNumber();
+
+    /**
+     * @return Number of bytes read from the file so far, 0 if not known.
+     */
+    long getBytesRead();
+}
@@ -0,0 +1,199 @@
+package com.github.mikkoi.maven.plugins.enforcer.rule.propertyusage;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.Arrays;
+import java.util.regex.Pattern;
+
+/**
+ * A regexp which is a plain text, found without the regexp engine.
+ * <p>
+ * Expanded templates are often literals, like <code>"my.property"</code>.
+ * Only such regexps are accepted: characters which stand for themselves
+ * (or are escaped with a backslash), whitespace which {@link Pattern#COMMENTS} ignores,
+ * and '.', which matches any character except a line terminator.
+ * The text is searched with Boyer-Moore-Horspool.
+ * <p>
+ * A '.' matches a whole surrogate pair, which this search does not do.
+ * If such a pattern is not found in a text containing surrogates,
+ * the text is searched again with the regexp.
+ */
+final class LiteralPattern {
+
+    private static final String METACHARACTERS = "^$|?*+()[]{}#";
+
+    private static final int TABLE_SIZE = 256;
+
+    private final @NonNull String regex;
+
+    private final int flags;
+
+    private final char @NonNull [] chars;
+
+    /**
+     * True for the positions which match any character.
+     */
+    private final boolean @NonNull [] any;
+
+    private final boolean hasAny;
+
+    /**
+     * Horspool shifts for the characters below {@link #TABLE_SIZE}.
+     */
+    private final int @NonNull [] shifts = new int[TABLE_SIZE];
+
+    /**
+     * Shift for the other characters.
+     */
+    private final int otherShift;
+
+    private volatile @Nullable Pattern fallback;
+
+    private LiteralPattern(final @NonNull String regex, final int flags, final char @NonNull [] chars, final boolean @NonNull [] any) {
+        this.regex = regex;
+        this.flags = flags;
+        this.chars = chars;
+        this.any = any;
+        final int m = chars.length;
+        int maxShift = Math.max(1, m);
+        boolean anyFound = false;
+        for (int i = 0; i < m; i++) {
+            if (any[i]) {
+                anyFound = true;
+                if (i < m - 1) {
+                    maxShift = m - 1 - i;
+                }
+            }
+        }
+        this.hasAny = anyFound;
+        Arrays.fill(shifts, maxShift);
+        int other = maxShift;
+        for (int i = 0; i < m - 1; i++) {
+            if (!any[i]) {
+                final int shift = Math.min(m - 1 - i, maxShift);
+                if (chars[i] < TABLE_SIZE) {
+                    shifts[chars[i]] = shift;
+                } else {
+                    other = Math.min(other, shift);
+                }
+            }
+        }
+        this.otherShift = other;
+    }
+
+    /**
+     * @param regex Regexp.
+     * @param flags Flags the regexp would be compiled with. Only {@link Pattern#COMMENTS}
+     *              and {@link Pattern#UNICODE_CHARACTER_CLASS} are allowed.
+     * @return The literal pattern, or null if the regexp is not a literal.
+     */
+    static @Nullable LiteralPattern compile(final @NonNull String regex, final int flags) {
+        if ((flags & ~(Pattern.COMMENTS | Pattern.UNICODE_CHARACTER_CLASS)) != 0) {
+            return null;
+        }
+        final boolean comments = (flags & Pattern.COMMENTS) != 0;
+        final StringBuilder chars = new StringBuilder(regex.length());
+        final boolean[] any = new boolean[regex.length()];
+        for (int i = 0; i < regex.length(); i++) {
+            char c = regex.charAt(i);
+            if (comments && isCommentsWhitespace(c)) {
+                continue;
+            }
+            if (c == '.') {
+                any[chars.length()] = true;
+            } else if (c == '\\') {
+                if (++i == regex.length()) {
+                    return null;
+                }
+                c = regex.charAt(i);
+                if (Character.isLetterOrDigit(c) || c >= 0x80) {
+                    return null;
+                }
+            } else if (METACHARACTERS.indexOf(c) >= 0 || Character.isSurrogate(c)) {
+                return null;
+            }
+            chars.append(c);
+        }
+        final char[] literal = new char[chars.length()];
+        chars.getChars(0, literal.length, literal, 0);
+        return new LiteralPattern(regex, flags, literal, Arrays.copyOf(any, literal.length));
+    }
+
+    /**
+     * @param text Plain text.
+     * @return Pattern which finds the text.
+     */
+    static @NonNull LiteralPattern of(final @NonNull String text) {
+        return new LiteralPattern(Pattern.quote(text), 0, text.toCharArray(), new boolean[text.length()]);
+    }
+
+    /**
+     * @param regex Regexp.
+     * @param flags Flags the regexp would be compiled with, as in {@link #compile(String, int)}.
+     * @return The text the regexp matches, or null if the regexp is not a literal without '.'.
+     */
+    static @Nullable String literal(final @NonNull String regex, final int flags) {
+        final LiteralPattern pattern = compile(regex, flags);
+        return pattern == null || pattern.hasAny ? null : new String(pattern.chars);
+    }
+
+    /**
+     * @param text Text to search.
+     * @return true if the pattern is found in the text, as with {@link java.util.regex.Matcher#find()}.
+     */
+    boolean find(final @NonNull CharSequence text) {
+        final int m = chars.length;
+        final int n = text.length();
+        for (int pos = 0; pos <= n - m; ) {
+            if (matchesAt(text, pos)) {
+                return true;
+            }
+            final char last = text.charAt(pos + m - 1);
+            pos += last < TABLE_SIZE ? shifts[last] : otherShift;
+        }
+        return hasAny && containsSurrogate(text) && fallback().matcher(text).find();
+    }
+
+    private boolean matchesAt(final @NonNull CharSequence text, final int pos) {
+        for (int i = chars.length - 1; i >= 0; i--) {
+            final char c = text.charAt(pos + i);
+            if (any[i] ? isLineTerminator(c) || Character.isSurrogate(c) : c != chars[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private @NonNull Pattern fallback() {
+        Pattern pattern = fallback;
+        if (pattern == null) {
+            pattern = Pattern.compile(regex, flags);
+            fallback = pattern;
+        }
+        return pattern;
+    }
+
+    private static boolean containsSurrogate(final @NonNull CharSequence text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (Character.isSurrogate(text.charAt(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Line terminators, which '.' does not match without {@link Pattern#DOTALL}.
+     */
+    private static boolean isLineTerminator(final char c) {
+        return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+
+    /**
+     * Whitespace ignored in a regexp with {@link Pattern#COMMENTS}.
+     */
+    static boolean isCommentsWhitespace(final char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+}
@@ -0,0 +1,217 @@
+package com.github.mikkoi.maven.plugins.enforcer.rule.propertyusage;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Read a memory-mapped file line by line, matching directly on the bytes when possible.
+ * <p>
+ * This works only with charsets in which the ASCII characters, including the
+ * line terminators, are single bytes which do not occur inside any other character:
+ * UTF-8, US-ASCII and ISO-8859-1. A line which contains only ASCII bytes
+ * (and with ISO-8859-1, every line) is a view into the mapped bytes,
+ * nothing is decoded or copied.
+ * Other lines are decoded one at a time into a reusable buffer.
+ * <p>
+ * The mapping is released by the garbage collector, not by {@link #close()}.
+ */
+final class MappedLineReader implements LineSource {
+
+    private final @NonNull ByteBuffer bytes;
+
+    private final @NonNull CharsetDecoder decoder;
+
+    /**
+     * Every byte is one character.
+     */
+    private final boolean singleByte;
+
+    private @NonNull CharBuffer decoded = CharBuffer.allocate(256);
+
+    private final @NonNull ByteLine line = new ByteLine();
+
+    private int position;
+
+    private int lineNumber;
+
+    private MappedLineReader(final @NonNull ByteBuffer bytes, final @NonNull Charset charset) {
+        this.bytes = bytes;
+        this.decoder = charset.newDecoder();
+        this.singleByte = StandardCharsets.ISO_8859_1.equals(charset);
+    }
+
+    /**
+     * @param charset Character set.
+     * @return true if the file can be read with this class.
+     */
+    static boolean isSupported(final @NonNull Charset charset) {
+        return StandardCharsets.UTF_8.equals(charset)
+                || StandardCharsets.US_ASCII.equals(charset)
+                || StandardCharsets.ISO_8859_1.equals(charset);
+    }
+
+    /**
+     * Map the file for reading. If the charset is not supported,
+     * or the file is too large to map at once, use a {@link LineReader} instead.
+     *
+     * @param path    File to read.
+     * @param charset Character set of the file.
+     * @return Lines of the file.
+     */
+    static @NonNull LineSource open(final @NonNull Path path, final @NonNull Charset charset) throws IOException {
+        if (!isSupported(charset)) {
+            return LineReader.open(path, charset);
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                return LineReader.open(path, charset);
+            }
+            return new MappedLineReader(channel.map(FileChannel.MapMode.READ_ONLY, 0, size), charset);
+        }
+    }
+
+    /**
+     * Wrap bytes already in memory.
+     *
+     * @param bytes   Content of the file.
+     * @param charset Character set of the content, must be supported.
+     * @return Lines of the content.
+     */
+    static @NonNull MappedLineReader wrap(final @NonNull ByteBuffer bytes, final @NonNull Charset charset) {
+        if (!isSupported(charset)) {
+            throw new IllegalArgumentException("Charset " + charset + " is not supported.");
+        }
+        return new MappedLineReader(bytes, charset);
+    }
+
+    @Override
+    public @Nullable CharSequence readLine() throws IOException {
+        final int limit = bytes.limit();
+        if (position >= limit) {
+            return null;
+        }
+        final int start = position;
+        int highBits = 0;
+        int end = start;
+        while (end < limit) {
+            final byte b = bytes.get(end);
+            if (b == '\n' || b == '\r') {
+                break;
+            }
+            highBits |= b;
+            end++;
+        }
+        position = end + 1;
+        if (end < limit && bytes.get(end) == '\r' && position < limit && bytes.get(position) == '\n') {
+            position++;
+        }
+        lineNumber++;
+        if (singleByte || (highBits & 0x80) == 0) {
+            line.set(start, end);
+            return line;
+        }
+        return decode(start, end);
+    }
+
+    @Override
+    public int getLineNumber() {
+        return lineNumber;
+    }
+
+    @Override
+    public long getBytesRead() {
+        return Math.min(position, bytes.limit());
+    }
+
+    /**
+     * Decode a line which is not plain ASCII.
+     */
+    private @NonNull CharSequence decode(final int start, final int end) throws IOException {
+        final ByteBuffer in = bytes.duplicate();
+        in.limit(end).position(start);
+        final int maxChars = (int) Math.ceil(decoder.maxCharsPerByte() * (end - start));
+        if (decoded.capacity() < maxChars) {
+            decoded = CharBuffer.allocate(Math.max(maxChars, decoded.capacity() * 2));
+        }
+        decoded.clear();
+        decoder.reset();
+        CoderResult result = decoder.decode(in, decoded, true);
+        if (!result.isError()) {
+            result = decoder.flush(decoded);
+        }
+        if (result.isError()) {
+            result.throwException();
+        }
+        decoded.flip();
+        return decoded;
+    }
+
+    @Override
+    public void close() {
+        // Nothing to close, the channel is closed when the file has been mapped.
+    }
+
+    /**
+     * The current line as a view into the bytes, one byte for one character.
+     */
+    private final class ByteLine implements CharSequence {
+
+        private int start;
+
+        private int end;
+
+        void set(final int lineStart, final int lineEnd) {
+            start = lineStart;
+            end = lineEnd;
+        }
+
+        @Override
+        public int length() {
+            return end - start;
+        }
+
+        @Override
+        public char charAt(final int index) {
+            if (index < 0 || index >= end - start) {
+                throw new IndexOutOfBoundsException("index " + index + ", length " + (end - start));
+            }
+            return (char) (bytes.get(start + index) & 0xff);
+        }
+
+        /**
+         * @return A copy, not a view, so that it stays valid after the next line is read.
+         */
+        @Override
+        public @NonNull CharSequence subSequence(final int from, final int to) {
+            if (from < 0 || to > end - start || from > to) {
+                throw new IndexOutOfBoundsException("from " + from + ", to " + to + ", length " + (end - start));
+            }
+            return copy(start + from, start + to);
+        }
+
+        @Override
+        public @NonNull String toString() {
+            return copy(start, end);
+        }
+
+        private @NonNull String copy(final int from, final int to) {
+            final char[] chars = new char[to - from];
+            for (int i = 0; i < chars.length; i++) {
+                chars[i] = (char) (bytes.get(from + i) & 0xff);
+            }
+            return new String(chars);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.github.mikkoi.maven.plugins.enforcer.rule.propertyusage;
+
+import org.apache.maven.execution.MavenSession;
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * Compiled template patterns, shared by all the executions of the rule in one Maven session.
+ * <p>
+ * A pattern is identified by the template, the placeholder and the text which replaces
+ * the placeholder, the property name regexp. Modules with the same configuration get
+ * the same compiled patterns instead of expanding and compiling them again.
+ * There are only a few of these per configuration, so the cache is not bounded.
+ * The templates expanded with every property name are not kept here but by
+ * the {@link UsageMatcher} of one execution, see {@link #compileFinder(String, String, String)}.
+ */
+final class PatternCache {
+
+    private static final int FLAGS = Pattern.COMMENTS | Pattern.UNICODE_CHARACTER_CLASS;
+
+    /**
+     * The caches of the sessions still running. Released with the session.
+     */
+    private static final Map<MavenSession, PatternCache> SESSION_CACHES = new WeakHashMap<>();
+
+    private final @NonNull Map<List<String>, Pattern> patterns = new ConcurrentHashMap<>();
+
+    private final @NonNull LongAdder compiled = new LongAdder();
+
+    /**
+     * @param session Maven session.
+     * @return The cache of the session.
+     */
+    static @NonNull PatternCache forSession(final @NonNull MavenSession session) {
+        synchronized (SESSION_CACHES) {
+            return SESSION_CACHES.computeIfAbsent(session, s -> new PatternCache());
+        }
+    }
+
+    /**
+     * Expand the template by replacing the placeholder, and compile it.
+     *
+     * @param template    Template (regexp), containing the placeholder.
+     * @param placeholder Placeholder (regexp) in the template.
+     * @param replacement Replacement for the placeholder, as in {@link String#replaceAll(String, String)}.
+     * @return The compiled pattern.
+     */
+    @NonNull Pattern expand(
+            final @NonNull String template,
+            final @NonNull String placeholder,
+            final @NonNull String replacement) {
+        return patterns.computeIfAbsent(Arrays.asList(template, placeholder, replacement), key -> {
+            compiled.increment();
+            return Pattern.compile(template.replaceAll(placeholder, replacement), FLAGS);
+        });
+    }
+
+    /**
+     * Expand the template by replacing the placeholder, and compile it
+     * into a literal search if possible, otherwise into a regexp. Not cached.
+     * Expanded templates which are literals are searched with a {@link LiteralPattern}
+     * instead of the regexp engine.
+     *
+     * @param template    Template (regexp), containing the placeholder.
+     * @param placeholder Placeholder (regexp) in the template.
+     * @param replacement Replacement for the placeholder, as in {@link String#replaceAll(String, String)}.
+     * @return Test which is true if the pattern is found in the text.
+     */
+    static @NonNull Predicate<CharSequence> compileFinder(
+            final @NonNull String template,
+            final @NonNull String placeholder,
+            final @NonNull String replacement) {
+        final String expanded = template.replaceAll(placeholder, replacement);
+        final LiteralPattern literal = LiteralPattern.compile(expanded, FLAGS);
+        if (literal != null) {
+            return literal::find;
+        }
+        final Pattern pattern = Pattern.compile(expanded, FLAGS);
+        return text -> pattern.matcher(text).find();
+    }
+
+    /**
+     * @return Number of patterns compiled by this cache.
+     */
+    long getCompiled() {
+        return compiled.sum();
+    }
+}
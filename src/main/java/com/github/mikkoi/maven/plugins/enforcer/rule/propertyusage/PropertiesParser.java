@@ -0,0 +1,230 @@
+package com.github.mikkoi.maven.plugins.enforcer.rule.propertyusage;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+import java.io.IOException;
+
+/**
+ * Parse .properties files with the grammar of {@link java.util.Properties#load(java.io.Reader)}.
+ * <p>
+ * Every character is examined once by a state machine:
+ * comment lines start with '#' or '!', the key ends at the first unescaped
+ * '=', ':' or whitespace, and a line ending with an unescaped backslash
+ * continues on the next line, without its leading whitespace.
+ * The escapes \t, \n, \r, \f and &#92;uXXXX are decoded, other escaped characters
+ * stand for themselves.
+ * <p>
+ * Unlike {@link java.util.Properties}, every definition is reported,
+ * with the number of the line where it starts.
+ */
+final class PropertiesParser {
+
+    /**
+     * Receives the definitions.
+     */
+    @FunctionalInterface
+    interface Handler {
+        void property(@NonNull String key, @NonNull String value, int lineNumber);
+    }
+
+    private enum State {
+        /** Before the key, skipping whitespace. */
+        LINE_START,
+        /** In a comment line. */
+        COMMENT,
+        /** In the key. */
+        KEY,
+        /** After the key and whitespace, before the separator. */
+        AFTER_KEY,
+        /** After the separator, skipping whitespace. */
+        VALUE_START,
+        /** In the value. */
+        VALUE,
+        /** After a backslash. */
+        ESCAPE,
+        /** In the hex digits of a unicode escape. */
+        UNICODE
+    }
+
+    private final @NonNull String filename;
+
+    private final @NonNull StringBuilder key = new StringBuilder();
+
+    private final @NonNull StringBuilder value = new StringBuilder();
+
+    private @NonNull State state = State.LINE_START;
+
+    /**
+     * State in which the current escape started.
+     */
+    private @NonNull State escaped = State.KEY;
+
+    private int unicode;
+
+    private int unicodeDigits;
+
+    private int lineNumber;
+
+    private PropertiesParser(final @NonNull String filename) {
+        this.filename = filename;
+    }
+
+    /**
+     * @param lines    Lines of the properties file.
+     * @param filename File name, for error messages.
+     * @param handler  Receives every definition in the file, in order.
+     * @throws IOException If the file cannot be read or contains a malformed unicode escape.
+     */
+    static void parse(
+            final @NonNull LineSource lines,
+            final @NonNull String filename,
+            final @NonNull Handler handler) throws IOException {
+        new PropertiesParser(filename).run(lines, handler);
+    }
+
+    private void run(final @NonNull LineSource lines, final @NonNull Handler handler) throws IOException {
+        boolean continuation = false;
+        for (CharSequence line = lines.readLine(); line != null; line = lines.readLine()) {
+            final int length = line.length();
+            int i = 0;
+            if (continuation) {
+                while (i < length && isWhitespace(line.charAt(i))) {
+                    i++;
+                }
+                continuation = false;
+            } else {
+                state = State.LINE_START;
+                lineNumber = lines.getLineNumber();
+                key.setLength(0);
+                value.setLength(0);
+            }
+            for (; i < length && state != State.COMMENT; i++) {
+                next(line.charAt(i), lines.getLineNumber());
+            }
+            if (state == State.ESCAPE) {
+                state = escaped;
+                continuation = true;
+            } else {
+                endOfLine(handler, lines.getLineNumber());
+            }
+        }
+        if (continuation) {
+            endOfLine(handler, lines.getLineNumber());
+        }
+    }
+
+    private void next(final char c, final int currentLine) throws IOException {
+        switch (state) {
+            case LINE_START:
+                if (c == '#' || c == '!') {
+                    state = State.COMMENT;
+                } else if (!isWhitespace(c)) {
+                    state = State.KEY;
+                    next(c, currentLine);
+                }
+                break;
+            case KEY:
+                if (c == '\\') {
+                    escape(State.KEY);
+                } else if (c == '=' || c == ':') {
+                    state = State.VALUE_START;
+                } else if (isWhitespace(c)) {
+                    state = State.AFTER_KEY;
+                } else {
+                    key.append(c);
+                }
+                break;
+            case AFTER_KEY:
+                if (c == '\\') {
+                    escape(State.AFTER_KEY);
+                } else if (c == '=' || c == ':') {
+                    state = State.VALUE_START;
+                } else if (!isWhitespace(c)) {
+                    state = State.VALUE;
+                    value.append(c);
+                }
+                break;
+            case VALUE_START:
+                if (!isWhitespace(c)) {
+                    state = State.VALUE;
+                    next(c, currentLine);
+                }
+                break;
+            case VALUE:
+                if (c == '\\') {
+                    escape(State.VALUE);
+                } else {
+                    value.append(c);
+                }
+                break;
+            case ESCAPE:
+                if (c == 'u') {
+                    state = State.UNICODE;
+                    unicode = 0;
+                    unicodeDigits = 0;
+                } else {
+                    state = escaped == State.KEY ? State.KEY : State.VALUE;
+                    target().append(unescape(c));
+                }
+                break;
+            case UNICODE:
+                final int digit = Character.digit(c, 16);
+                if (digit < 0) {
+                    throw malformedUnicode(currentLine);
+                }
+                unicode = (unicode << 4) | digit;
+                if (++unicodeDigits == 4) {
+                    state = escaped == State.KEY ? State.KEY : State.VALUE;
+                    target().append((char) unicode);
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void endOfLine(final @NonNull Handler handler, final int currentLine) throws IOException {
+        switch (state) {
+            case LINE_START:
+            case COMMENT:
+                break;
+            case UNICODE:
+                throw malformedUnicode(currentLine);
+            default:
+                handler.property(key.toString(), value.toString(), lineNumber);
+                break;
+        }
+    }
+
+    private void escape(final @NonNull State from) {
+        escaped = from;
+        state = State.ESCAPE;
+    }
+
+    private @NonNull StringBuilder target() {
+        return escaped == State.KEY ? key : value;
+    }
+
+    private @NonNull IOException malformedUnicode(final int currentLine) {
+        return new IOException("Malformed \\uxxxx encoding in " + filename + ":" + currentLine);
+    }
+
+    private static char unescape(final char c) {
+        switch (c) {
+            case 't':
+                return '\t';
+            case 'n':
+                return '\n';
+            case 'r':
+                return '\r';
+            case 'f':
+                return '\f';
+            default:
+                return c;
+        }
+    }
+
+    private static boolean isWhitespace(final char c) {
+        return c == ' ' || c == '\t' || c == '\f';
+    }
+}
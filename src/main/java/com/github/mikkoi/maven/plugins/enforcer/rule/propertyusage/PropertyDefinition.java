@@ -1,16 +1,19 @@
 package com.github.mikkoi.maven.plugins.enforcer.rule.propertyusage;
 
 import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
 import java.util.Objects;
+import java.util.function.Function;
 
 public class PropertyDefinition {
 
 
     private final @NonNull String key;
-    private final @NonNull String value;
+    private @Nullable String value;
     private final @NonNull String filename;
     private final int lineNumber;
+    private final @Nullable Function<PropertyDefinition, String> valueReader;
 
     public PropertyDefinition(final @NonNull String key, final @NonNull String value, final @NonNull String filename,
                               final int lineNumber) {
@@ -21,6 +24,20 @@ public class PropertyDefinition {
         this.value = value;
         this.filename = filename;
         this.lineNumber = lineNumber;
+        this.valueReader = null;
+    }
+
+    /**
+     * Definition whose value is read only when asked for.
+     *
+     * @param valueReader Reads the value of the definition from its file.
+     */
+    PropertyDefinition(final @NonNull String key, final @NonNull String filename, final int lineNumber,
+                       final @NonNull Function<PropertyDefinition, String> valueReader) {
+        this.key = Objects.requireNonNull(key);
+        this.filename = Objects.requireNonNull(filename);
+        this.lineNumber = lineNumber;
+        this.valueReader = Objects.requireNonNull(valueReader);
     }
 
     public @NonNull String getKey() {
@@ -28,7 +45,19 @@ public class PropertyDefinition {
     }
 
     public @NonNull String getValue() {
-        return value;
+        String v = value;
+        if (v == null) {
+            v = Objects.requireNonNull(valueReader).apply(this);
+            value = v;
+        }
+        return v;
+    }
+
+    /**
+     * @return true if the value is known without reading the file.
+     */
+    boolean isValueRead() {
+        return value != null;
     }
 
     public @NonNull String getFilename() {
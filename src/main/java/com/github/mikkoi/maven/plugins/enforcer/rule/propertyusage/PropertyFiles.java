@@ -3,17 +3,17 @@ package com.github.mikkoi.maven.plugins.enforcer.rule.propertyusage;
 import org.apache.maven.enforcer.rule.api.EnforcerLogger;
 
 import org.checkerframework.checker.nullness.qual.NonNull;
-import org.checkerframework.checker.regex.qual.Regex;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.Charset;
-import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.*;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Handle issues with .properties files.
@@ -22,18 +22,68 @@ class PropertyFiles {
 
     private final EnforcerLogger log;
 
+    /**
+     * Debug logging is enabled. Checked before building messages for every property.
+     */
+    private final boolean debug;
+
     private final Charset charset;
 
-    private final Pattern commentLineP = Pattern.compile("^[\\s]{0,}[\\#\\!]{1}.{0,}$");
-    private final Pattern simplePropertyLineP = Pattern.compile("^[\\s]{0,}([^=:]{1,})[=:]{1}(.{0,})$", Pattern.COMMENTS | Pattern.UNICODE_CHARACTER_CLASS);
-    private final Pattern notSimplePropertyLineP = Pattern.compile("^[\\s]{0,}([\\S]{1,})[\\s]{0,}(.{0,})$", Pattern.COMMENTS | Pattern.UNICODE_CHARACTER_CLASS);
-    private final Pattern multiLineP = Pattern.compile("\\\\{1}[\\s]{0,}$");
+    /**
+     * Optional cache for the definitions read from each file.
+     */
+    private @Nullable ScanCache<List<PropertyDefinition>> cache;
+
+    private @NonNull ScanStatistics statistics = new ScanStatistics();
+
+    /**
+     * Optional index of the definitions already read in this Maven session.
+     */
+    private @Nullable SharedDefinitions sharedDefinitions;
+
+    /**
+     * Optional reading of the files ahead of the parsing.
+     */
+    private @Nullable FileReadAhead readAhead;
+
+    /**
+     * Contents of the files read ahead, until they are parsed.
+     */
+    private final @NonNull Map<String, byte[]> readAheadContents = new ConcurrentHashMap<>();
 
     PropertyFiles(final @NonNull EnforcerLogger logger, final @NonNull Charset cset) {
         log = logger;
+        debug = logger.isDebugEnabled();
         charset = cset;
     }
 
+    void setCache(final @Nullable ScanCache<List<PropertyDefinition>> cache) {
+        this.cache = cache;
+    }
+
+    void setStatistics(final @NonNull ScanStatistics statistics) {
+        this.statistics = statistics;
+    }
+
+    void setSharedDefinitions(final @Nullable SharedDefinitions sharedDefinitions) {
+        this.sharedDefinitions = sharedDefinitions;
+    }
+
+    void setReadAhead(final @Nullable FileReadAhead readAhead) {
+        this.readAhead = readAhead;
+    }
+
+    /**
+     * Open the lines of a file, from the content read ahead if there is one.
+     */
+    private @NonNull LineReader openRows(final @NonNull String filename) throws IOException {
+        final byte[] content = readAheadContents.remove(filename);
+        if (content != null) {
+            return LineReader.open(content, charset);
+        }
+        return LineReader.open(Paths.get(filename), charset);
+    }
+
     /**
      * @param filenames Collection of file names to read properties from.
      * @return Map of definitions and how many times they are defined.
@@ -44,11 +94,13 @@ class PropertyFiles {
         for (String filename : filenames) {
             File file = new File(filename);
             Properties properties = new Properties();
-            log.debug("PropertyFiles:readPropertiesFromFilesWithoutCount() Reading file " + filename + ".");
+            log.debug(() -> "PropertyFiles:readPropertiesFromFilesWithoutCount() Reading file " + filename + ".");
             try (InputStream inputStream = java.nio.file.Files.newInputStream(file.toPath())) {
                 properties.load(inputStream);
                 for (String name : properties.stringPropertyNames()) {
-                    log.debug("    Reading property " + name + ".");
+                    if (debug) {
+                        log.debug("    Reading property " + name + ".");
+                    }
                     results.put(name, 1);
                 }
             }
@@ -67,12 +119,8 @@ class PropertyFiles {
     Map<String, Integer> readPropertiesFromFilesWithCount(final @NonNull Collection<String> filenames)
             throws IOException {
         final Map<String, Integer> results = new HashMap<>();
-        log.debug("commentLineP:" + commentLineP.pattern());
-        log.debug("simplePropertyLineP:" + simplePropertyLineP.pattern());
-        log.debug("simplePropertyLineP:" + simplePropertyLineP.pattern());
-        log.debug("multiLineP:" + multiLineP);
         for (final String filename : filenames) {
-            log.debug("Reading property file '" + filename + "'.");
+            log.debug(() -> "Reading property file '" + filename + "'.");
             readPropertiesFromFileWithCount(filename).forEach((key, value) -> results.put(key, value));
         }
         return results;
@@ -80,7 +128,9 @@ class PropertyFiles {
 
     /**
      * Read properties with our own reading routine and return
-     * a set of definition instances
+     * a set of definition instances.
+     * With reading ahead, the files are read concurrently
+     * and parsed one at a time in the order they were read.
      *
      * @param filenames Collection of file names to read properties from.
      * @return Map of definitions and PropertyDefinitions
@@ -88,25 +138,172 @@ class PropertyFiles {
     @NonNull Map<String, Set<PropertyDefinition>> readPropertiesFromFilesGetDefinitions(final @NonNull Collection<String> filenames)
             throws IOException {
         final Map<String, Set<PropertyDefinition>> results = new HashMap<>();
-        log.debug("commentLineP:" + commentLineP.pattern());
-        log.debug("simplePropertyLineP:" + simplePropertyLineP.pattern());
-        log.debug("simplePropertyLineP:" + simplePropertyLineP.pattern());
-        log.debug("multiLineP:" + multiLineP);
-        for (final String filename : filenames) {
-            log.debug("Reading property file '" + filename + "'.");
-            readPropertiesFromFileGetDefinitions(filename).forEach((key, value) -> {
-                log.debug("key:" + key);
-                log.debug("value:" + value);
-                if(results.containsKey(key)) {
-                    results.get(key).addAll(value);
-                } else {
-                    results.put(key, value);
+        final FileReadAhead fileReadAhead = readAhead;
+        if (fileReadAhead != null && filenames.size() > 1) {
+            fileReadAhead.forEachFile(new ArrayList<>(filenames), 1, () -> false, (filename, content) -> {
+                if (content != null) {
+                    readAheadContents.put(filename, content);
+                }
+                try {
+                    readPropertiesFromFileGetDefinitions(filename, results);
+                } finally {
+                    readAheadContents.remove(filename);
                 }
             });
+        } else {
+            for (final String filename : filenames) {
+                readPropertiesFromFileGetDefinitions(filename, results);
+            }
         }
         return results;
     }
 
+    private void readPropertiesFromFileGetDefinitions(
+            final @NonNull String filename, final @NonNull Map<String, Set<PropertyDefinition>> results)
+            throws IOException {
+        log.debug(() -> "Reading property file '" + filename + "'.");
+        readCachedPropertiesFromFileGetDefinitions(filename).forEach((key, value) -> {
+            if (debug) {
+                log.debug("key:" + key);
+                log.debug("value:" + value);
+            }
+            if(results.containsKey(key)) {
+                results.get(key).addAll(value);
+            } else {
+                results.put(key, value);
+            }
+        });
+    }
+
+    /**
+     * Read properties with our own reading routine into a compact table,
+     * without keeping their values. The values are read again when asked for.
+     * Neither the cache nor the definitions shared in the session are used,
+     * since they keep the values.
+     *
+     * @param filenames Collection of file names to read properties from.
+     * @return Table of definitions
+     */
+    @NonNull DefinitionTable readPropertiesFromFilesGetDefinitionTable(final @NonNull Collection<String> filenames)
+            throws IOException {
+        final DefinitionTable table = new DefinitionTable(this::readValue);
+        for (final String filename : filenames) {
+            log.debug(() -> "Reading property file '" + filename + "'.");
+            final int fileId = table.fileId(filename);
+            try (LineReader rows = LineReader.open(Paths.get(filename), charset)) {
+                PropertiesParser.parse(rows, filename, (key, value, linenumber) -> {
+                    if (debug) {
+                        log.debug("    Read property '" + key + "' (" + linenumber + ").");
+                    }
+                    table.add(key, fileId, linenumber);
+                });
+                statistics.fileScanned(rows.getBytesRead());
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Read the value of a definition from its file again.
+     * A value which cannot be read is logged, and is empty.
+     */
+    private @NonNull String readValue(final @NonNull PropertyDefinition definition) {
+        final List<PropertyDefinition> read = withValues(Collections.singletonList(definition));
+        return read.isEmpty() ? "" : read.get(0).getValue();
+    }
+
+    /**
+     * Give the definitions whose value has not been read their values.
+     * Every file is parsed once, however many of its definitions are asked for.
+     * A value which cannot be read is logged, and its definition is left out.
+     *
+     * @param definitions Definitions, with or without values.
+     * @return The definitions with values, in the same order.
+     */
+    @NonNull List<PropertyDefinition> withValues(final @NonNull Collection<PropertyDefinition> definitions) {
+        final Map<String, Map<Integer, List<PropertyDefinition>>> unread = new HashMap<>();
+        for (final PropertyDefinition definition : definitions) {
+            if (!definition.isValueRead()) {
+                unread.computeIfAbsent(definition.getFilename(), f -> new HashMap<>())
+                        .computeIfAbsent(definition.getLineNumber(), l -> new ArrayList<>(1))
+                        .add(definition);
+            }
+        }
+        final Map<PropertyDefinition, PropertyDefinition> read = new IdentityHashMap<>();
+        unread.forEach((filename, lines) -> {
+            try (LineReader rows = LineReader.open(Paths.get(filename), charset)) {
+                PropertiesParser.parse(rows, filename, (key, value, linenumber) -> {
+                    final List<PropertyDefinition> onLine = lines.get(linenumber);
+                    if (onLine != null) {
+                        onLine.stream().filter(definition -> definition.getKey().equals(key)).forEach(definition ->
+                                read.put(definition, new PropertyDefinition(key, value, filename, linenumber)));
+                    }
+                });
+            } catch (IOException e) {
+                log.warn("Cannot read the values of properties from file '" + filename + "': " + e.getLocalizedMessage());
+                return;
+            }
+            lines.values().forEach(onLine -> onLine.stream().filter(definition -> !read.containsKey(definition)).forEach(
+                    definition -> log.warn("Property '" + definition.getKey() + "' is no longer defined in "
+                            + filename + ":" + definition.getLineNumber() + ", cannot read its value.")));
+        });
+        final List<PropertyDefinition> result = new ArrayList<>(definitions.size());
+        for (final PropertyDefinition definition : definitions) {
+            if (definition.isValueRead()) {
+                result.add(definition);
+            } else if (read.containsKey(definition)) {
+                result.add(read.get(definition));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Read properties from the definitions already read in this session
+     * or from the cache, if the file has not changed, otherwise from the file.
+     *
+     * @param filename File name to read properties from.
+     * @return Map of definitions and PropertyDefinitions
+     */
+    private @NonNull Map<String, Set<PropertyDefinition>> readCachedPropertiesFromFileGetDefinitions(final @NonNull String filename)
+            throws IOException {
+        final SharedDefinitions shared = sharedDefinitions;
+        if (shared != null) {
+            final List<PropertyDefinition> sharedDefs = shared.get(filename, charset);
+            if (sharedDefs != null) {
+                log.debug(() -> "Using definitions already read for file '" + filename + "'.");
+                return toDefinitionMap(sharedDefs);
+            }
+        }
+        if (cache == null && shared == null) {
+            return readPropertiesFromFileGetDefinitions(filename);
+        }
+        final List<PropertyDefinition> cached = cache == null ? null : cache.get(filename);
+        if (cached != null) {
+            log.debug(() -> "Using cached definitions for file '" + filename + "'.");
+            if (shared != null) {
+                shared.put(filename, charset, cached);
+            }
+            return toDefinitionMap(cached);
+        }
+        final Map<String, Set<PropertyDefinition>> propertyDefinitions = readPropertiesFromFileGetDefinitions(filename);
+        final List<PropertyDefinition> definitions = new ArrayList<>();
+        propertyDefinitions.values().forEach(definitions::addAll);
+        if (cache != null) {
+            cache.put(filename, definitions);
+        }
+        if (shared != null) {
+            shared.put(filename, charset, definitions);
+        }
+        return propertyDefinitions;
+    }
+
+    private static @NonNull Map<String, Set<PropertyDefinition>> toDefinitionMap(final @NonNull List<PropertyDefinition> definitions) {
+        final Map<String, Set<PropertyDefinition>> propertyDefinitions = new HashMap<>();
+        definitions.forEach(def -> propertyDefinitions.computeIfAbsent(def.getKey(), key -> new HashSet<>()).add(def));
+        return propertyDefinitions;
+    }
+
     /**
      * Read properties with our own reading routine and count
      * how many times they are used.
@@ -114,130 +311,47 @@ class PropertyFiles {
      * @param filename File name to read properties from.
      * @return Map of definitions and how many times they are defined.
      */
-    @SuppressWarnings({
-            "squid:S3776", // Cognitive Complexity of methods should not be too high
-            "squid:S134",  // Control flow statements "if", "for", "while", "switch" and "try" should not be nested too deeply
-            "squid:S135"   // Loops should not contain more than a single "break" or "continue" statement
-    })
     @NonNull Map<String, Integer> readPropertiesFromFileWithCount(final @NonNull String filename)
             throws IOException {
         final Map<String, Integer> results = new HashMap<>();
-        List<String> rows = Files.readAllLines(Paths.get(filename), charset);
-        boolean readingMultiLineDefinition = false;
-        int linenumber = 0;
-        for (String row : rows) {
-            linenumber++;
-            log.debug("    Reading property row '" + row + "' (" + linenumber + ").");
-            final @Regex(0) Matcher commentLineM = commentLineP.matcher(row);
-            if (commentLineM.find()) {
-                log.debug("        This is comment line.");
-                continue;
-            }
-            final @Regex(0) Matcher multiLineM = multiLineP.matcher(row);
-            if (multiLineM.find()) {
-                if (readingMultiLineDefinition) {
-                    log.debug("        This is multirow (not first row)");
-                    continue;
-                } else {
-                    log.debug("        This is multirow (first row).");
-                    readingMultiLineDefinition = true;
-                }
-            } else {
-                if (readingMultiLineDefinition) {
-                    log.debug("        This is multirow (last row).");
-                    readingMultiLineDefinition = false;
-                    continue;
+        try (LineReader rows = LineReader.open(Paths.get(filename), charset)) {
+            PropertiesParser.parse(rows, filename, (key, value, linenumber) -> {
+                if (debug) {
+                    log.debug("    Read property '" + key + "' (" + linenumber + ").");
                 }
-            }
-            final @Regex(1) Matcher simplePropertyLineM = simplePropertyLineP.matcher(row);
-            if (simplePropertyLineM.find()) {
-                log.debug("        This is simple property line.");
-                @SuppressWarnings("nullness")
-                final String key = simplePropertyLineM.group(1).trim();
                 storePropertyName(key, results);
-                continue;
-            }
-            final @Regex(1) Matcher notSimplePropertyLineM = notSimplePropertyLineP.matcher(row);
-            if (notSimplePropertyLineM.find()) {
-                log.debug("        This is not simple property line.");
-                @SuppressWarnings("nullness")
-                final String key = notSimplePropertyLineM.group(1).trim();
-                storePropertyName(key, results);
-                continue;
-            }
-            log.debug("        This row matched nothing,  propably empty or multiline continuation.");
+            });
+            statistics.fileScanned(rows.getBytesRead());
         }
         return results;
     }
 
     /**
-     * Read properties with our own reading routine ...
+     * Read properties with our own reading routine and return
+     * every definition with its value and line number.
      *
      * @param filename File name to read properties from.
-     * @return Map of definitions and ...
+     * @return Map of definitions and PropertyDefinitions
      */
-    @SuppressWarnings({
-            "squid:S3776", // Cognitive Complexity of methods should not be too high
-            "squid:S134",  // Control flow statements "if", "for", "while", "switch" and "try" should not be nested too deeply
-            "squid:S135"   // Loops should not contain more than a single "break" or "continue" statement
-    })
     @NonNull Map<String, Set<PropertyDefinition>> readPropertiesFromFileGetDefinitions(final @NonNull String filename)
             throws IOException {
         final Map<String, Set<PropertyDefinition>> propertyDefinitions = new HashMap<>();
-        List<String> rows = Files.readAllLines(Paths.get(filename), charset);
-        boolean readingMultiLineDefinition = false;
-        int linenumber = 0;
-        for (String row : rows) {
-            linenumber++;
-            log.debug("    Reading property row '" + row + "' (" + linenumber + ").");
-            final @Regex(2) Matcher commentLineM = commentLineP.matcher(row);
-            if (commentLineM.find()) {
-                log.debug("        This is comment line.");
-                continue;
-            }
-            final @Regex(0) Matcher multiLineM = multiLineP.matcher(row);
-            if (multiLineM.find()) {
-                if (readingMultiLineDefinition) {
-                    log.debug("        This is multirow (not first row)");
-                    continue;
-                } else {
-                    log.debug("        This is multirow (first row).");
-                    readingMultiLineDefinition = true;
+        try (LineReader rows = openRows(filename)) {
+            PropertiesParser.parse(rows, filename, (key, value, linenumber) -> {
+                if (debug) {
+                    log.debug("    Read property '" + key + "' (" + linenumber + ").");
                 }
-            } else {
-                if (readingMultiLineDefinition) {
-                    log.debug("        This is multirow (last row).");
-                    readingMultiLineDefinition = false;
-                    continue;
-                }
-            }
-            final @Regex(2) Matcher simplePropertyLineM = simplePropertyLineP.matcher(row);
-            if (simplePropertyLineM.find()) {
-                log.debug("        This is simple property line.");
-                @SuppressWarnings("nullness")
-                final String key = simplePropertyLineM.group(1).trim();
-                @SuppressWarnings("nullness")
-                final String value = simplePropertyLineM.group(2).trim();
                 storePropertyDefinition(key, value, filename, linenumber, propertyDefinitions);
-                continue;
-            }
-            final @Regex(2) Matcher notSimplePropertyLineM = notSimplePropertyLineP.matcher(row);
-            if (notSimplePropertyLineM.find()) {
-                log.debug("        This is not simple property line.");
-                @SuppressWarnings("nullness")
-                final String key = Objects.requireNonNull(notSimplePropertyLineM.group(1)).trim();
-                @SuppressWarnings("nullness")
-                final String value = Objects.requireNonNull(notSimplePropertyLineM.group(2)).trim();
-                storePropertyDefinition(key, value, filename, linenumber, propertyDefinitions);
-                continue;
-            }
-            log.debug("        This row matched nothing,  propably empty or multiline continuation.");
+            });
+            statistics.fileScanned(rows.getBytesRead());
         }
         return propertyDefinitions;
     }
 
     private void storePropertyName(final @NonNull String key, final @NonNull Map<String, Integer> properties) {
-        log.debug("            Reading property " + key + ".");
+        if (debug) {
+            log.debug("            Reading property " + key + ".");
+        }
         if (!properties.containsKey(key)) {
             log.debug("            Not defined before.");
             properties.put(key, 1);
@@ -248,7 +362,9 @@ class PropertyFiles {
     }
 
     private void storePropertyDefinition(final @NonNull String key, final @NonNull String value, final @NonNull String filename, final int linenumber, final @NonNull Map<String, Set<PropertyDefinition>> propertyDefinitions) {
-        log.debug("            Reading property " + key + ".");
+        if (debug) {
+            log.debug("            Reading property " + key + ".");
+        }
         if (propertyDefinitions.containsKey(key)) {
             log.debug("            Defined before.");
             propertyDefinitions.get(key).add(new PropertyDefinition(key, value, filename, linenumber));
@@ -259,4 +375,33 @@ class PropertyFiles {
             propertyDefinitions.put(key, defs);
         }
     }
+
+    /**
+     * Cache codec for the definitions read from a file.
+     */
+    static final ScanCache.Codec<List<PropertyDefinition>> DEFINITIONS_CODEC = new ScanCache.Codec<List<PropertyDefinition>>() {
+        @Override
+        public void write(final @NonNull DataOutputStream out, final @NonNull List<PropertyDefinition> value) throws IOException {
+            out.writeInt(value.size());
+            for (final PropertyDefinition definition : value) {
+                ScanCache.writeString(out, definition.getKey());
+                ScanCache.writeString(out, definition.getValue());
+                ScanCache.writeString(out, definition.getFilename());
+                out.writeInt(definition.getLineNumber());
+            }
+        }
+
+        @Override
+        public @NonNull List<PropertyDefinition> read(final @NonNull DataInputStream in) throws IOException {
+            final int count = ScanCache.readCount(in);
+            final List<PropertyDefinition> value = new ArrayList<>(ScanCache.initialCapacity(count));
+            for (int i = 0; i < count; i++) {
+                final String key = ScanCache.readString(in);
+                final String val = ScanCache.readString(in);
+                final String filename = ScanCache.readString(in);
+                value.add(new PropertyDefinition(key, val, filename, in.readInt()));
+            }
+            return value;
+        }
+    };
 }
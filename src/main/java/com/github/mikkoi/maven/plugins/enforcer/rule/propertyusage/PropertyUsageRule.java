@@ -1,6 +1,5 @@
 package com.github.mikkoi.maven.plugins.enforcer.rule.propertyusage;
 
-import com.github.mikkoi.maven.plugins.enforcer.rule.propertyusage.UsageFiles.UsageLocation;
 import com.github.mikkoi.maven.plugins.enforcer.rule.propertyusage.configuration.Definitions;
 import com.github.mikkoi.maven.plugins.enforcer.rule.propertyusage.configuration.FileSpecs;
 import com.github.mikkoi.maven.plugins.enforcer.rule.propertyusage.configuration.Templates;
@@ -9,15 +8,22 @@ import org.apache.maven.enforcer.rule.api.AbstractEnforcerRule;
 import org.apache.maven.enforcer.rule.api.EnforcerLogger;
 import org.apache.maven.execution.MavenSession;
 import org.apache.maven.rtinfo.RuntimeInformation;
+import org.apache.maven.model.Build;
 import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.codehaus.plexus.util.StringUtils;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 import javax.inject.Inject;
@@ -37,6 +43,17 @@ public final class PropertyUsageRule extends AbstractEnforcerRule {
      */
     private static final Charset DEFAULT_CHAR_SET = StandardCharsets.UTF_8;
 
+    /**
+     * Cache id of the rule in aggregate mode in the modules where it does nothing.
+     */
+    private static final String AGGREGATE_NOT_LAST_PROJECT_CACHE_ID = "aggregate-not-last-project";
+
+    /**
+     * Files found by {@link #getCacheId()} per file specs, excludes and base directories,
+     * to be used by {@link #execute()} instead of looking for them again.
+     */
+    private final @NonNull Map<List<Object>, Collection<String>> foundFiles = new ConcurrentHashMap<>();
+
     /**
      * Properties which were defined more than once.
      */
@@ -53,7 +70,9 @@ public final class PropertyUsageRule extends AbstractEnforcerRule {
     private final @NonNull Set<UsageFiles.UsageLocation> propertiesNotDefined = new HashSet<>();
 
     /**
-     * All properties defined.
+     * All properties defined, with their definitions.
+     * With compactDefinitions only the properties defined more than once,
+     * and only if reportDuplicateDefinitions is active.
      */
     private final @NonNull Map<String, Set<PropertyDefinition>> propertiesDefined = new ConcurrentHashMap<>();
 
@@ -116,6 +135,102 @@ public final class PropertyUsageRule extends AbstractEnforcerRule {
      * Usages
      */
     private @NonNull Collection<String> usages = Usages.getDefault();
+    /**
+     * Exclude patterns for the definitions files.
+     */
+    private @NonNull Collection<String> definitionExcludes = Collections.emptyList();
+    /**
+     * Exclude patterns for the usages files.
+     */
+    private @NonNull Collection<String> usageExcludes = Collections.emptyList();
+
+    /**
+     * Number of threads to scan the usage files with.
+     * 1 means scanning sequentially.
+     */
+    private int scanThreads = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Number of usage files read into memory ahead of the scanning threads.
+     * 0 means that every scanning thread reads its files itself.
+     */
+    private int scanReadAhead = 0;
+
+    /**
+     * Number of threads reading the files ahead of the scanning,
+     * i.e. the number of reads issued at a time.
+     */
+    private int scanReadThreads = 2;
+
+    /**
+     * Read the files ahead on virtual threads, if the JDK has them.
+     */
+    private boolean scanVirtualThreads = false;
+
+    /**
+     * Keep the results of every scanned file in an on-disk cache
+     * and reuse them while the file does not change.
+     */
+    private boolean scanCache = false;
+
+    /**
+     * Directory of the scan cache.
+     * Default is property-usage-cache in the project build directory.
+     */
+    private String scanCacheDirectory = "";//NOPMD
+
+    /**
+     * Recognize unchanged files in the scan cache by their content hash
+     * instead of their modification time.
+     */
+    private boolean scanCacheContentHash = false;
+
+    /**
+     * Read the usage files by mapping them into memory.
+     */
+    private boolean scanMemoryMapped = false;
+
+    /**
+     * Log the timings and counters of the scan at info level.
+     */
+    private boolean reportStatistics = false;
+
+    /**
+     * Write the timings and counters of the scan as JSON into this file.
+     * Relative to the project base directory. Default is not to write.
+     */
+    private String statisticsFile = "";//NOPMD
+
+    /**
+     * Check the whole reactor at once: run only in the last module of the build,
+     * with the definitions and usages of all the modules.
+     * The check is not made at all if the last module does not configure the rule.
+     */
+    private boolean aggregate = false;
+
+    /**
+     * Base revision in the local git repository. If set, only the files changed since it
+     * are scanned, the results of the other files are taken from the scan cache.
+     */
+    private String gitBaseRef = "";//NOPMD
+
+    /**
+     * Find the defined properties by looking up the tokens of every line,
+     * if the templates are plain text around the placeholder.
+     */
+    private boolean tokenIndex = false;
+
+    /**
+     * Keep the definitions in compact form, without their values,
+     * for very large numbers of properties.
+     */
+    private boolean compactDefinitions = false;
+
+    /**
+     * Report every usage on a line, not only the first one per template,
+     * with its column.
+     */
+    private boolean allUsagesPerLine = false;
 
     // Inject needed Maven components
 
@@ -152,11 +267,17 @@ public final class PropertyUsageRule extends AbstractEnforcerRule {
     public void execute() throws EnforcerRuleException {
         final EnforcerLogger log = getLog();
 
+        if (aggregate && !isLastProject()) {
+            log.info("Aggregate mode: property usage is checked in the last module of the build.");
+            return;
+        }
+
         // THIS WORKS:
 //        log.error("project.getBasedir(): " + project.getBasedir());
 //        log.info("project.getBasedir(): " + project.getBasedir());
 
         final Path basedir = project.getBasedir().toPath();
+        final List<Path> basedirs = getBasedirs();
 
 ////        properties = project.getProperties();
 ////        log.error("properties: " + properties.toString());
@@ -175,6 +296,8 @@ public final class PropertyUsageRule extends AbstractEnforcerRule {
 
         log.debug("PropertyUsageRule:execute() - Settings:");
         log.debug("basedir:" + basedir);
+        log.debug("aggregate:" + aggregate);
+        log.debug(() -> "basedirs:" + basedirs);
         log.debug("propertiesEnc:" + propertiesEnc);
         log.debug("sourceEnc:" + sourceEnc);
         log.debug("replaceInTemplateWithPropertyName:" + replaceInTemplateWithPropertyName);
@@ -182,7 +305,25 @@ public final class PropertyUsageRule extends AbstractEnforcerRule {
         log.debug("definitions:" + definitions);
         log.debug("templates:" + templates);
         log.debug("usages:" + usages);
+        log.debug("definitionExcludes:" + definitionExcludes);
+        log.debug("usageExcludes:" + usageExcludes);
+        log.debug("scanThreads:" + scanThreads);
+        log.debug("scanReadAhead:" + scanReadAhead);
+        log.debug("scanReadThreads:" + scanReadThreads);
+        log.debug("scanVirtualThreads:" + scanVirtualThreads);
+        log.debug("scanCache:" + scanCache);
+        log.debug("scanMemoryMapped:" + scanMemoryMapped);
+        log.debug("reportStatistics:" + reportStatistics);
+        log.debug("statisticsFile:" + statisticsFile);
+        log.debug("gitBaseRef:" + gitBaseRef);
+        log.debug("tokenIndex:" + tokenIndex);
+        log.debug("compactDefinitions:" + compactDefinitions);
+        log.debug("allUsagesPerLine:" + allUsagesPerLine);
 
+        final ScanStatistics statistics = new ScanStatistics();
+        final PatternCache patternCache = PatternCache.forSession(session);
+        final long compiledBefore = patternCache.getCompiled();
+        final GitChangedFiles changedFiles = getChangedFiles(basedir);
         try {
             log.debug("PropertyUsageRule:execute() - Run:");
             // Get property definitions (i.e. property names):
@@ -190,66 +331,148 @@ public final class PropertyUsageRule extends AbstractEnforcerRule {
             log.debug("definitions:");
             definitions.stream().forEach(a -> log.debug(a));
             log.debug(":END");
-            final Collection<String> propertyFilenames = FileSpecs.getAbsoluteFilenames(definitions, basedir, log)
+            long phaseStart = statistics.startPhase();
+            final Collection<String> propertyFilenames = findFiles(definitions, definitionExcludes, basedirs, log)
                     .stream().sorted()
                     .collect(Collectors.toSet());
+            statistics.endPhase(ScanStatistics.PHASE_DISCOVERY, phaseStart);
                     // Get the property definitions and how many times they are defined.
 //            log.debug("propertyFilenames: [\n" + propertyFilenames.stream().map(fn -> fn + "\n").sorted().collect(Collectors.toList()) + "]");
-            Map<String, Set<PropertyDefinition>> definedProperties = getPropertiesDefined(propertiesEnc, propertyFilenames);
+            final ScanCache<List<PropertyDefinition>> definitionsCache = compactDefinitions ? null
+                    : openScanCache(basedir, "definitions.cache", "definitions|" + propertiesEnc,
+                            PropertyFiles.DEFINITIONS_CODEC, changedFiles);
+            phaseStart = statistics.startPhase();
+            Map<String, Set<PropertyDefinition>> definedProperties = readPropertiesDefined(propertiesEnc, propertyFilenames, definitionsCache, statistics);
+            if (definitionsCache != null) {
+                definitionsCache.save();
+                statistics.addCache(definitionsCache);
+            }
+            statistics.endPhase(ScanStatistics.PHASE_DEFINITIONS, phaseStart);
+            if (!compactDefinitions) {
+                propertiesDefined.putAll(definedProperties);
+            }
             definedProperties.forEach((prop, defs) -> {
-                log.debug("Property '" + prop + "' defined " + defs.size() + " times.");
+                log.debug(() -> "Property '" + prop + "' defined " + defs.size() + " times.");
                 if (defs.size() > 1) {
                     propertiesDefinedMoreThanOnce.put(prop, defs.size());
+                    if (compactDefinitions && reportDuplicateDefinitions) {
+                        propertiesDefined.put(prop, defs);
+                    }
                 }
             });
 
             // Get all the fileSpecs to check for property usage.
             // Normally **/*.java, maybe **/*.jsp, etc.
-            final Collection<String> usageFilenames = FileSpecs.getAbsoluteFilenames(usages, basedir, log)
+            phaseStart = statistics.startPhase();
+            final Collection<String> usageFilenames = findFiles(usages, usageExcludes, basedirs, log)
                     .stream().sorted().collect(Collectors.toSet());
+            statistics.endPhase(ScanStatistics.PHASE_DISCOVERY, phaseStart);
             // Iterate through fileSpecs and collect property usage.
             // Iterate
-            final UsageFiles usageFiles = new UsageFiles(log);
+            final UsageFiles usageFiles = new UsageFiles(log, scanThreads);
+            usageFiles.setMemoryMapped(scanMemoryMapped);
+            usageFiles.setReadAhead(getFileReadAhead());
+            usageFiles.setStatistics(statistics);
+            usageFiles.setAllUsagesPerLine(allUsagesPerLine);
+            UsageMatcher matcher = null;
+            ScanCache<Set<String>> definedUsagesCache = null;
             if (definedPropertiesAreUsed) {
                 log.debug("definedPropertiesAreUsed");
-                final Map<String, String> readyTemplates = new ConcurrentHashMap<>();
-                templates.forEach(tpl -> definedProperties.forEach(
-                        (propertyDefinition, nrPropertyDefinitions) ->
-                                readyTemplates.put(
-                                        tpl.replaceAll(replaceInTemplateWithPropertyName, propertyDefinition),
-                                        propertyDefinition
-                                )
-                        )
-                );
-                log.debug("readyTemplates:" + readyTemplates);
-                final Collection<String> usedProperties
-                        = usageFiles.readDefinedUsagesFromFiles(usageFilenames, readyTemplates, sourceEnc);
+                phaseStart = statistics.startPhase();
+                matcher = new UsageMatcher(
+                        templates, replaceInTemplateWithPropertyName, definedProperties.keySet());
+                if (tokenIndex) {
+                    final TokenIndex index = TokenIndex.compile(templates, replaceInTemplateWithPropertyName, matcher);
+                    if (index == null) {
+                        log.info("Token index cannot be used with these templates or property names, matching templates instead.");
+                    }
+                    usageFiles.setTokenIndex(index);
+                }
+                statistics.endPhase(ScanStatistics.PHASE_TEMPLATES, phaseStart);
+                // The properties found per file depend on the properties searched for,
+                // so adding or removing a property makes every usage file be read again.
+                definedUsagesCache = openScanCache(basedir, "defined-usages.cache",
+                        "defined-usages|" + sourceEnc + "|" + tokenIndex + "|" + replaceInTemplateWithPropertyName
+                                + "|" + new TreeSet<>(templates) + "|" + new TreeSet<>(definedProperties.keySet()),
+                        UsageFiles.FOUND_PROPERTIES_CODEC, changedFiles);
+                usageFiles.setDefinedUsagesCache(definedUsagesCache);
+            }
+            List<Pattern> readyPatterns = null;
+            ScanCache<UsageTable> allUsagesCache = null;
+            if (usedPropertiesAreDefined) {
+                log.debug("usedPropertiesAreDefined");
+                phaseStart = statistics.startPhase();
+                final Set<String> readyTemplates = new HashSet<>();
+                readyPatterns = new ArrayList<>();
+                for (final String tpl : templates) {
+                    final Pattern pattern = patternCache.expand(tpl, replaceInTemplateWithPropertyName, propertyNameRegexp);
+                    if (readyTemplates.add(pattern.pattern())) {
+                        readyPatterns.add(pattern);
+                    }
+                }
+                log.debug(() -> "readyTemplates:" + readyTemplates);
+                statistics.endPhase(ScanStatistics.PHASE_TEMPLATES, phaseStart);
+                allUsagesCache = openScanCache(basedir, "all-usages.cache",
+                        "all-usages|" + sourceEnc + "|" + allUsagesPerLine + "|" + new TreeSet<>(readyTemplates),
+                        UsageFiles.USAGE_TABLE_CODEC, changedFiles);
+                usageFiles.setAllUsagesCache(allUsagesCache);
+            }
+            // With both checks, every usage file is read once for both.
+            Collection<String> usedProperties = Collections.emptySet();
+            UsageTable usageTable = new UsageTable();
+            if (matcher != null && readyPatterns != null) {
+                phaseStart = statistics.startPhase();
+                final UsageFiles.ScanResult result = usageFiles.readUsagesFromFiles(usageFilenames, matcher, readyPatterns, sourceEnc);
+                usedProperties = result.getDefinedUsages();
+                usageTable = result.getAllUsageTable();
+                statistics.endPhase(ScanStatistics.PHASE_USAGES, phaseStart);
+            } else if (matcher != null) {
+                phaseStart = statistics.startPhase();
+                usedProperties = usageFiles.readDefinedUsagesFromFiles(usageFilenames, matcher, sourceEnc);
+                statistics.endPhase(ScanStatistics.PHASE_DEFINED_USAGES, phaseStart);
+            } else if (readyPatterns != null) {
+                phaseStart = statistics.startPhase();
+                usageTable = usageFiles.readAllUsagesFromFilesGetTable(usageFilenames, readyPatterns, sourceEnc);
+                statistics.endPhase(ScanStatistics.PHASE_ALL_USAGES, phaseStart);
+            }
+            if (definedUsagesCache != null) {
+                definedUsagesCache.save();
+                statistics.addCache(definedUsagesCache);
+            }
+            if (allUsagesCache != null) {
+                allUsagesCache.save();
+                statistics.addCache(allUsagesCache);
+            }
+            if (definedPropertiesAreUsed) {
+                final Collection<String> used = usedProperties;
                 definedProperties.forEach((prop, nrOf) -> {
-                    if (!usedProperties.contains(prop)) {
-                        log.debug("Property " + prop + " not used.");
+                    if (!used.contains(prop)) {
+                        log.debug(() -> "Property " + prop + " not used.");
                         propertiesNotUsed.add(prop);
                     }
                 });
             }
             if (usedPropertiesAreDefined) {
-                log.debug("usedPropertiesAreDefined");
-                final Set<String> readyTemplates = new HashSet<>();
-                templates.forEach(tpl -> readyTemplates.add(
-                        tpl.replaceAll(replaceInTemplateWithPropertyName, propertyNameRegexp)
-                        )
-                );
-                log.debug("readyTemplates:" + readyTemplates);
-                final Collection<UsageLocation> usageLocations
-                        = usageFiles.readAllUsagesFromFiles(usageFilenames, readyTemplates, sourceEnc);
-                usageLocations.forEach(loc -> {
-                    if (definedProperties.containsKey(loc.getProperty())) {
-                        log.debug("Property " + loc.getProperty() + " defined.");
+                // Every property used is looked up once, and only its usages without a definition become locations.
+                final BitSet notDefined = new BitSet(usageTable.getPropertyCount());
+                for (int propertyId = 0; propertyId < usageTable.getPropertyCount(); propertyId++) {
+                    final String prop = usageTable.getProperty(propertyId);
+                    if (definedProperties.containsKey(prop)) {
+                        log.debug(() -> "Property " + prop + " defined.");
                     } else {
-                        log.debug("Property " + loc.getProperty() + " not defined.");
-                        propertiesNotDefined.add(loc);
+                        log.debug(() -> "Property " + prop + " not defined.");
+                        notDefined.set(propertyId);
                     }
-                });
+                }
+                for (int usage = 0; usage < usageTable.size(); usage++) {
+                    if (notDefined.get(usageTable.getPropertyId(usage))) {
+                        propertiesNotDefined.add(usageTable.getLocation(usage));
+                    }
+                }
             }
+            statistics.patternsCompiled(patternCache.getCompiled() - compiledBefore
+                    + (matcher == null ? 0 : matcher.getCompiled()));
+            reportStatistics(statistics, basedir);
         } catch (IOException e) {
             throw new EnforcerRuleException(
                     "IO error: " + e.getLocalizedMessage(), e
@@ -273,15 +496,18 @@ public final class PropertyUsageRule extends AbstractEnforcerRule {
         if (usedPropertiesAreDefined) {
             propertiesNotDefined.forEach(loc ->
                     log.error("Property '" + loc.getProperty() + "' used without defining it ("
-                            + loc.getFilename() + ":" + loc.getRow() + ")"));
+                            + loc.getFilename() + ":" + loc.getRow() + (allUsagesPerLine ? ":" + loc.getColumn() : "") + ")"));
         }
         // reportDuplicateDefinitions
         if (reportDuplicateDefinitions) {
-            propertiesDefined.entrySet().stream().filter(entry -> entry.getValue().size() > 1).forEach(
-                    entry -> entry.getValue().forEach(
-                            propDef -> log.info("Defined '" + propDef.getKey() + "' with value '" + propDef.getValue()
-                                    + "' in " + propDef.getFilename() + ":" + propDef.getLineNumber())
-                    )
+            // Compact definitions read their values from the files, every file once.
+            final List<PropertyDefinition> duplicates = propertiesDefined.values().stream()
+                    .filter(defs -> defs.size() > 1)
+                    .flatMap(Set::stream)
+                    .collect(Collectors.toList());
+            new PropertyFiles(log, propertiesEnc).withValues(duplicates).forEach(
+                    propDef -> log.info("Defined '" + propDef.getKey() + "' with value '" + propDef.getValue()
+                            + "' in " + propDef.getFilename() + ":" + propDef.getLineNumber())
             );
         }
 
@@ -302,7 +528,7 @@ public final class PropertyUsageRule extends AbstractEnforcerRule {
         if (definitionsOnlyOnce) {
             definedProperties = new PropertyFiles(log, propertiesEnc).readPropertiesFromFilesWithCount(propertyFilenames);
             definedProperties.forEach((prop, nrOf) -> {
-                log.debug("Property '" + prop + "' defined " + nrOf + " times.");
+                log.debug(() -> "Property '" + prop + "' defined " + nrOf + " times.");
                 if (nrOf > 1) {
                     propertiesDefinedMoreThanOnce.put(prop, nrOf);
                 }
@@ -313,17 +539,292 @@ public final class PropertyUsageRule extends AbstractEnforcerRule {
         return definedProperties;
     }
 
-    private Map<String, Set<PropertyDefinition>> getPropertiesDefined(final Charset propertiesEnc, final Collection<String> propertyFilenames) throws IOException {
+    private Map<String, Set<PropertyDefinition>> readPropertiesDefined(
+            final Charset propertiesEnc,
+            final Collection<String> propertyFilenames,
+            final @Nullable ScanCache<List<PropertyDefinition>> cache,
+            final @NonNull ScanStatistics statistics) throws IOException {
         Map<String, Set<PropertyDefinition>> definedProperties;
         final EnforcerLogger log = getLog();
-        definedProperties = new PropertyFiles(log, propertiesEnc).readPropertiesFromFilesGetDefinitions(propertyFilenames);
+        final PropertyFiles propertyFiles = new PropertyFiles(log, propertiesEnc);
+        propertyFiles.setCache(cache);
+        propertyFiles.setStatistics(statistics);
+        propertyFiles.setReadAhead(getFileReadAhead());
+        if (compactDefinitions) {
+            final DefinitionTable table = propertyFiles.readPropertiesFromFilesGetDefinitionTable(propertyFilenames);
+            log.debug(() -> "Definition table has " + table.size() + " properties, "
+                    + table.getDefinitionCount() + " definitions.");
+            return table;
+        }
+        propertyFiles.setSharedDefinitions(SharedDefinitions.forSession(session));
+        definedProperties = propertyFiles.readPropertiesFromFilesGetDefinitions(propertyFilenames);
         return definedProperties;
     }
 
+    /**
+     * @return Reading of the files ahead, or null if not configured.
+     */
+    private @Nullable FileReadAhead getFileReadAhead() {
+        if (scanReadAhead <= 0) {
+            return null;
+        }
+        return new FileReadAhead(getLog(), scanReadAhead, scanReadThreads, scanVirtualThreads);
+    }
+
+    /**
+     * Log the statistics and write them into the statistics file, if so configured.
+     *
+     * @param statistics Statistics of this execution.
+     * @param basedir    Project base directory.
+     */
+    private void reportStatistics(final @NonNull ScanStatistics statistics, final @NonNull Path basedir) throws IOException {
+        if (reportStatistics) {
+            getLog().info(statistics.summary());
+        }
+        if (StringUtils.isNotBlank(statisticsFile)) {
+            final Path file = basedir.resolve(statisticsFile);
+            getLog().debug("Writing statistics to '" + file + "'.");
+            statistics.writeJson(file);
+        }
+    }
+
+    /**
+     * Open a scan cache, if caching is activated.
+     *
+     * @param basedir   Project base directory.
+     * @param name      File name of the cache.
+     * @param configKey Configuration the cached results depend on.
+     * @param codec     Reader and writer for the results.
+     * @param changedFiles Files changed since the base revision, or null if not known.
+     * @return The cache, or null if caching is not active.
+     */
+    private <T> @Nullable ScanCache<T> openScanCache(
+            final @NonNull Path basedir,
+            final @NonNull String name,
+            final @NonNull String configKey,
+            final ScanCache.@NonNull Codec<T> codec,
+            final @Nullable GitChangedFiles changedFiles) {
+        if (!scanCache) {
+            return null;
+        }
+        final ScanCache<T> cache = new ScanCache<>(getScanCacheDirectory(basedir).resolve(name), configKey, codec,
+                scanCacheContentHash, getLog()).load();
+        if (changedFiles != null) {
+            cache.setChangedFiles(changedFiles.getFiles(), changedFiles.getTrackedFiles(), changedFiles.getRevision());
+        }
+        return cache;
+    }
+
+    /**
+     * Ask git for the files changed since the base revision.
+     * If they cannot be listed, every file is checked against the scan cache as usual.
+     *
+     * @param basedir Project base directory.
+     * @return Changed files, or null if not in use or not known.
+     */
+    private @Nullable GitChangedFiles getChangedFiles(final @NonNull Path basedir) {
+        if (StringUtils.isBlank(gitBaseRef)) {
+            return null;
+        }
+        final EnforcerLogger log = getLog();
+        if (!scanCache) {
+            log.warn("Parameter gitBaseRef needs scanCache, scanning all files.");
+            return null;
+        }
+        try {
+            final GitChangedFiles changedFiles = GitChangedFiles.since(basedir, gitBaseRef);
+            log.info(changedFiles.getFiles().size() + " files changed since '" + gitBaseRef + "' ("
+                    + changedFiles.getRevision() + "), the results of the other files are taken from the scan cache.");
+            log.debug(() -> "changedFiles:" + new TreeSet<>(changedFiles.getFiles()));
+            return changedFiles;
+        } catch (IOException e) {
+            log.warn("Cannot list files changed since '" + gitBaseRef + "', scanning all files: "
+                    + e.getLocalizedMessage());
+            return null;
+        }
+    }
+
+    private @NonNull Path getScanCacheDirectory(final @NonNull Path basedir) {
+        if (StringUtils.isNotBlank(scanCacheDirectory)) {
+            return basedir.resolve(scanCacheDirectory);
+        }
+        final Build build = project.getBuild();
+        final String buildDirectory = build == null ? null : build.getDirectory();
+        final Path buildDir = buildDirectory == null ? basedir.resolve("target") : Paths.get(buildDirectory);
+        return buildDir.resolve("property-usage-cache");
+    }
+
+    /**
+     * Enforcer does not run the rule again with the same cache id.
+     * <p>
+     * The id is made of the configuration and of the files to read:
+     * their names, sizes and modification times. The content of the files
+     * is not read, so computing the id is cheap compared to running the rule.
+     * The module directory is not part of the id: modules which read the same files
+     * with the same configuration, e.g. files shared from the top of the project,
+     * get the same id and the rule runs only once for them.
+     * The files found are kept for {@link #execute()}.
+     * <p>
+     * In aggregate mode the rule does nothing in the other modules than the last one,
+     * so they all get the same id without examining any files.
+     *
+     * @return Cache id, or null if the files cannot be found or examined;
+     * {@link #execute()} then reports the error.
+     */
+    @Override
+    public @Nullable String getCacheId() {
+        if (aggregate && !isLastProject()) {
+            return AGGREGATE_NOT_LAST_PROJECT_CACHE_ID;
+        }
+        final EnforcerLogger log = getLog();
+        final List<Path> basedirs = getBasedirs();
+        final StringBuilder key = new StringBuilder()
+                .append("aggregate=").append(aggregate)
+                .append("|sourceEncoding=").append(sourceEncoding)
+                .append("|propertiesEncoding=").append(propertiesEncoding)
+                .append("|definitionsOnlyOnce=").append(definitionsOnlyOnce)
+                .append("|definedPropertiesAreUsed=").append(definedPropertiesAreUsed)
+                .append("|usedPropertiesAreDefined=").append(usedPropertiesAreDefined)
+                .append("|reportDuplicateDefinitions=").append(reportDuplicateDefinitions)
+                .append("|replaceInTemplateWithPropertyName=").append(replaceInTemplateWithPropertyName)
+                .append("|propertyNameRegexp=").append(propertyNameRegexp)
+                .append("|definitions=").append(definitions)
+                .append("|templates=").append(templates)
+                .append("|usages=").append(usages)
+                .append("|definitionExcludes=").append(definitionExcludes)
+                .append("|usageExcludes=").append(usageExcludes)
+                .append("|gitBaseRef=").append(gitBaseRef)
+                .append("|tokenIndex=").append(tokenIndex)
+                .append("|compactDefinitions=").append(compactDefinitions)
+                .append("|allUsagesPerLine=").append(allUsagesPerLine);
+        final Collection<String> definitionFiles;
+        final Collection<String> usageFiles;
+        try {
+            definitionFiles = getAbsoluteFilenames(definitions, definitionExcludes, basedirs, log);
+            usageFiles = getAbsoluteFilenames(usages, usageExcludes, basedirs, log);
+        } catch (IllegalStateException | UncheckedIOException e) {
+            log.debug("Cannot find files, rule is not cached: " + e.getLocalizedMessage());
+            return null;
+        }
+        foundFiles.put(foundFilesKey(definitions, definitionExcludes, basedirs), definitionFiles);
+        foundFiles.put(foundFilesKey(usages, usageExcludes, basedirs), usageFiles);
+        try {
+            appendFileSet(key.append("|definitionFiles="), definitionFiles);
+            appendFileSet(key.append("|usageFiles="), usageFiles);
+        } catch (IOException e) {
+            log.debug("Cannot examine files, rule is not cached: " + e.getLocalizedMessage());
+            return null;
+        }
+        return ScanCache.digest(key.toString());
+    }
+
+    /**
+     * Append name, size and modification time of every file.
+     */
+    private static void appendFileSet(
+            final @NonNull StringBuilder key,
+            final @NonNull Collection<String> filenames) throws IOException {
+        for (final String filename : new TreeSet<>(filenames)) {
+            final BasicFileAttributes attributes = Files.readAttributes(Paths.get(filename), BasicFileAttributes.class);
+            key.append(filename)
+                    .append(':').append(attributes.size())
+                    .append(':').append(attributes.lastModifiedTime().toMillis())
+                    .append(';');
+        }
+    }
+
+    /**
+     * Take the files {@link #getCacheId()} found with the same arguments, or look for them.
+     *
+     * @param fileSpecs File specs, relative to every base directory.
+     * @param excludes  Exclude patterns.
+     * @param basedirs  Base directories.
+     * @param log       Logger.
+     * @return Absolute names of the files found in any of the base directories.
+     */
+    private @NonNull Collection<String> findFiles(
+            final @NonNull Collection<String> fileSpecs,
+            final @NonNull Collection<String> excludes,
+            final @NonNull List<Path> basedirs,
+            final @NonNull EnforcerLogger log) {
+        final Collection<String> found = foundFiles.remove(foundFilesKey(fileSpecs, excludes, basedirs));
+        if (found != null) {
+            log.debug("Using the files found for the cache id.");
+            return found;
+        }
+        return getAbsoluteFilenames(fileSpecs, excludes, basedirs, log);
+    }
+
+    private static @NonNull List<Object> foundFilesKey(
+            final @NonNull Collection<String> fileSpecs,
+            final @NonNull Collection<String> excludes,
+            final @NonNull List<Path> basedirs) {
+        return Arrays.asList(new ArrayList<>(fileSpecs), new ArrayList<>(excludes), new ArrayList<>(basedirs));
+    }
 
     /**
-     * This rule is not cacheable so we do not implement getCacheId().
+     * @param fileSpecs File specs, relative to every base directory.
+     * @param excludes  Exclude patterns.
+     * @param basedirs  Base directories.
+     * @param log       Logger.
+     * @return Absolute names of the files found in any of the base directories.
      */
+    private static @NonNull Collection<String> getAbsoluteFilenames(
+            final @NonNull Collection<String> fileSpecs,
+            final @NonNull Collection<String> excludes,
+            final @NonNull List<Path> basedirs,
+            final @NonNull EnforcerLogger log) {
+        if (basedirs.size() == 1) {
+            return FileSpecs.getAbsoluteFilenames(fileSpecs, excludes, basedirs.get(0), log);
+        }
+        final Set<String> filenames = new HashSet<>();
+        basedirs.forEach(dir -> filenames.addAll(FileSpecs.getAbsoluteFilenames(
+                fileSpecs, withNestedBasedirsExcluded(excludes, dir, basedirs), dir, log)));
+        return filenames;
+    }
+
+    /**
+     * A base directory nested inside another one is scanned on its own,
+     * so it is left out of the scan of the outer one.
+     * Otherwise a pattern like "**&#47;*.java" would walk the nested directory twice.
+     *
+     * @return Exclude patterns for scanning the base directory.
+     */
+    private static @NonNull Collection<String> withNestedBasedirsExcluded(
+            final @NonNull Collection<String> excludes,
+            final @NonNull Path basedir,
+            final @NonNull List<Path> basedirs) {
+        final List<String> allExcludes = new ArrayList<>(excludes);
+        for (final Path other : basedirs) {
+            if (!other.equals(basedir) && other.startsWith(basedir)) {
+                allExcludes.add(basedir.relativize(other).toString().replace('\\', '/') + "/**");
+            }
+        }
+        return allExcludes;
+    }
+
+    /**
+     * @return Base directories to look for the files in:
+     * all the modules of the build in aggregate mode, otherwise this project's.
+     */
+    private @NonNull List<Path> getBasedirs() {
+        final List<MavenProject> projects = aggregate ? session.getProjects() : null;
+        if (projects == null || projects.isEmpty()) {
+            return Collections.singletonList(project.getBasedir().toPath());
+        }
+        return projects.stream()
+                .map(p -> p.getBasedir().toPath().toAbsolutePath().normalize())
+                .distinct()
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * @return true if this project is the last one of the build, or the build order is not known.
+     */
+    private boolean isLastProject() {
+        final List<MavenProject> projects = session.getProjects();
+        return projects == null || projects.isEmpty() || projects.get(projects.size() - 1) == project;
+    }
 
     /**
      * A good practice is provided toString method for Enforcer Rule.
@@ -355,6 +856,10 @@ public final class PropertyUsageRule extends AbstractEnforcerRule {
         return propertiesDefinedMoreThanOnce;
     }
 
+    /**
+     * @return All properties defined, with their definitions. With compactDefinitions
+     * only the properties defined more than once, and only if reportDuplicateDefinitions is active.
+     */
     public @NonNull Map<String, Set<PropertyDefinition>> getPropertiesDefined() {
         return propertiesDefined;
     }
@@ -419,4 +924,140 @@ public final class PropertyUsageRule extends AbstractEnforcerRule {
     public void setUsages(final @NonNull Collection<String> usages) {
         this.usages = usages;
     }
+
+    public @NonNull Collection<String> getDefinitionExcludes() {
+        return definitionExcludes;
+    }
+
+    public void setDefinitionExcludes(final @NonNull Collection<String> definitionExcludes) {
+        this.definitionExcludes = definitionExcludes;
+    }
+
+    public @NonNull Collection<String> getUsageExcludes() {
+        return usageExcludes;
+    }
+
+    public void setUsageExcludes(final @NonNull Collection<String> usageExcludes) {
+        this.usageExcludes = usageExcludes;
+    }
+
+    public int getScanThreads() {
+        return scanThreads;
+    }
+
+    public void setScanThreads(final int scanThreads) {
+        this.scanThreads = scanThreads;
+    }
+
+    public int getScanReadAhead() {
+        return scanReadAhead;
+    }
+
+    public void setScanReadAhead(final int scanReadAhead) {
+        this.scanReadAhead = scanReadAhead;
+    }
+
+    public int getScanReadThreads() {
+        return scanReadThreads;
+    }
+
+    public void setScanReadThreads(final int scanReadThreads) {
+        this.scanReadThreads = scanReadThreads;
+    }
+
+    public boolean isScanVirtualThreads() {
+        return scanVirtualThreads;
+    }
+
+    public void setScanVirtualThreads(final boolean scanVirtualThreads) {
+        this.scanVirtualThreads = scanVirtualThreads;
+    }
+
+    public boolean isScanCache() {
+        return scanCache;
+    }
+
+    public void setScanCache(final boolean scanCache) {
+        this.scanCache = scanCache;
+    }
+
+    public @NonNull String getScanCacheDirectory() {
+        return scanCacheDirectory;
+    }
+
+    public void setScanCacheDirectory(final @NonNull String scanCacheDirectory) {
+        this.scanCacheDirectory = scanCacheDirectory;
+    }
+
+    public boolean isScanCacheContentHash() {
+        return scanCacheContentHash;
+    }
+
+    public void setScanCacheContentHash(final boolean scanCacheContentHash) {
+        this.scanCacheContentHash = scanCacheContentHash;
+    }
+
+    public boolean isScanMemoryMapped() {
+        return scanMemoryMapped;
+    }
+
+    public void setScanMemoryMapped(final boolean scanMemoryMapped) {
+        this.scanMemoryMapped = scanMemoryMapped;
+    }
+
+    public boolean isReportStatistics() {
+        return reportStatistics;
+    }
+
+    public void setReportStatistics(final boolean reportStatistics) {
+        this.reportStatistics = reportStatistics;
+    }
+
+    public @NonNull String getStatisticsFile() {
+        return statisticsFile;
+    }
+
+    public void setStatisticsFile(final @NonNull String statisticsFile) {
+        this.statisticsFile = statisticsFile;
+    }
+
+    public boolean isAggregate() {
+        return aggregate;
+    }
+
+    public void setAggregate(final boolean aggregate) {
+        this.aggregate = aggregate;
+    }
+
+    public @NonNull String getGitBaseRef() {
+        return gitBaseRef;
+    }
+
+    public void setGitBaseRef(final @NonNull String gitBaseRef) {
+        this.gitBaseRef = gitBaseRef;
+    }
+
+    public boolean isTokenIndex() {
+        return tokenIndex;
+    }
+
+    public void setTokenIndex(final boolean tokenIndex) {
+        this.tokenIndex = tokenIndex;
+    }
+
+    public boolean isCompactDefinitions() {
+        return compactDefinitions;
+    }
+
+    public void setCompactDefinitions(final boolean compactDefinitions) {
+        this.compactDefinitions = compactDefinitions;
+    }
+
+    public boolean isAllUsagesPerLine() {
+        return allUsagesPerLine;
+    }
+
+    public void setAllUsagesPerLine(final boolean allUsagesPerLine) {
+        this.allUsagesPerLine = allUsagesPerLine;
+    }
 }
@@ -0,0 +1,250 @@
+package com.github.mikkoi.maven.plugins.enforcer.rule.propertyusage;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Text which every match of a regexp contains.
+ * <p>
+ * A row without the text cannot match, so it is not given to the regexp at all.
+ * A run of plain characters (or characters escaped with a backslash) is required
+ * unless a quantifier makes its last character optional. Groups, character classes,
+ * '.' and the other escapes end a run. The contents of a group are required too,
+ * unless the group is optional or contains an alternation.
+ * A regexp with a top level alternation, inline flags, lookaround, named groups,
+ * comments or escapes which are not understood here has no required text.
+ */
+final class RequiredLiteral {
+
+    private static final String QUANTIFIERS = "?*+{";
+
+    /** Every run of the sequence is required. */
+    private static final int REQUIRED = 0;
+
+    /** The sequence has an alternation, so none of its runs is required. */
+    private static final int ALTERNATION = 1;
+
+    /** The regexp is not understood. */
+    private static final int UNKNOWN = 2;
+
+    private RequiredLiteral() {
+        // This class cannot be instantiated.
+        throw new AssertionError();
+    }
+
+    /**
+     * @param pattern Compiled regexp.
+     * @return The longest text every match contains, or null if none was found.
+     */
+    static @Nullable String of(final @NonNull Pattern pattern) {
+        return of(pattern.pattern(), pattern.flags());
+    }
+
+    /**
+     * @param regex Regexp.
+     * @param flags Flags the regexp is compiled with.
+     * @return The longest text every match contains, or null if none was found.
+     */
+    static @Nullable String of(final @NonNull String regex, final int flags) {
+        if ((flags & (Pattern.CASE_INSENSITIVE | Pattern.LITERAL | Pattern.CANON_EQ)) != 0) {
+            return null;
+        }
+        final List<String> runs = new ArrayList<>();
+        if (collect(regex, 0, regex.length(), (flags & Pattern.COMMENTS) != 0, runs) != REQUIRED) {
+            return null;
+        }
+        String longest = "";
+        for (final String run : runs) {
+            if (run.length() > longest.length()) {
+                longest = run;
+            }
+        }
+        return longest.isEmpty() ? null : longest;
+    }
+
+    /**
+     * Collect the required runs of the sequence between the given indexes.
+     *
+     * @return {@link #REQUIRED}, {@link #ALTERNATION} or {@link #UNKNOWN}.
+     */
+    private static int collect(
+            final @NonNull String regex,
+            final int from,
+            final int to,
+            final boolean comments,
+            final @NonNull List<String> runs) {
+        final StringBuilder run = new StringBuilder();
+        int i = from;
+        while (i < to) {
+            final char c = regex.charAt(i);
+            if (comments && LiteralPattern.isCommentsWhitespace(c)) {
+                i++;
+                continue;
+            }
+            final int atomEnd;
+            char literal = 0;
+            boolean isLiteral = false;
+            int groupStart = -1;
+            if (c == '|') {
+                return ALTERNATION;
+            } else if (c == '(') {
+                if (regex.startsWith("(?", i) && !regex.startsWith("(?:", i)) {
+                    // Inline flags, lookaround or named group: not analyzed.
+                    return UNKNOWN;
+                }
+                groupStart = regex.startsWith("(?:", i) ? i + 3 : i + 1;
+                atomEnd = skipGroup(regex, i, comments);
+            } else if (c == '[') {
+                atomEnd = skipClass(regex, i, comments);
+            } else if (c == '\\') {
+                if (i + 1 == to) {
+                    return UNKNOWN;
+                }
+                final char escaped = regex.charAt(i + 1);
+                if (Character.isLetterOrDigit(escaped)) {
+                    if (escaped == 'p' || escaped == 'P') {
+                        atomEnd = regex.startsWith("{", i + 2) ? regex.indexOf('}', i + 2) + 1 : i + 3;
+                    } else if ("bBdDsSwWhHvVRX".indexOf(escaped) >= 0) {
+                        atomEnd = i + 2;
+                    } else {
+                        // Quoting, character codes and back references.
+                        return UNKNOWN;
+                    }
+                } else {
+                    literal = escaped;
+                    isLiteral = true;
+                    atomEnd = i + 2;
+                }
+            } else if (c == '.' || c == '^' || c == '$' || Character.isSurrogate(c)) {
+                // A quantifier after a surrogate pair would apply to the whole pair.
+                atomEnd = i + 1;
+            } else if (QUANTIFIERS.indexOf(c) >= 0 || c == ')' || comments && c == '#') {
+                // Dangling quantifier or parenthesis, or a comment: not analyzed.
+                return UNKNOWN;
+            } else {
+                literal = c;
+                isLiteral = true;
+                atomEnd = i + 1;
+            }
+            if (atomEnd <= i || atomEnd > to) {
+                return UNKNOWN;
+            }
+            i = atomEnd;
+            final int quantifierEnd = skipQuantifier(regex, i, comments);
+            final boolean required = quantifierEnd == i || regex.charAt(nextToken(regex, i, comments)) == '+';
+            if (isLiteral) {
+                if (quantifierEnd == i) {
+                    run.append(literal);
+                    continue;
+                }
+                if (required) {
+                    run.append(literal);
+                }
+            }
+            runs.add(run.toString());
+            run.setLength(0);
+            if (groupStart >= 0) {
+                final List<String> groupRuns = new ArrayList<>();
+                final int group = collect(regex, groupStart, atomEnd - 1, comments, groupRuns);
+                if (group == UNKNOWN) {
+                    return UNKNOWN;
+                }
+                if (group == REQUIRED && required) {
+                    runs.addAll(groupRuns);
+                }
+            }
+            i = quantifierEnd;
+        }
+        runs.add(run.toString());
+        return REQUIRED;
+    }
+
+    /**
+     * @return Index after the group starting at the given index,
+     * or 0 if it does not end or contains a comment.
+     */
+    private static int skipGroup(final @NonNull String regex, final int start, final boolean comments) {
+        int depth = 0;
+        for (int i = start; i < regex.length(); i++) {
+            final char c = regex.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (comments && c == '#') {
+                return 0;
+            } else if (c == '[') {
+                final int end = skipClass(regex, i, comments);
+                if (end == 0) {
+                    return 0;
+                }
+                i = end - 1;
+            } else if (c == '(') {
+                depth++;
+            } else if (c == ')' && --depth == 0) {
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * @return Index after the character class starting at the given index,
+     * or 0 if it does not end or contains a comment.
+     */
+    private static int skipClass(final @NonNull String regex, final int start, final boolean comments) {
+        int depth = 0;
+        for (int i = start; i < regex.length(); i++) {
+            final char c = regex.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (comments && c == '#') {
+                return 0;
+            } else if (c == '[') {
+                depth++;
+                // A ']' right after the opening bracket (or its negation) is a plain character.
+                if (regex.startsWith("]", i + 1)) {
+                    i++;
+                } else if (regex.startsWith("^]", i + 1)) {
+                    i += 2;
+                }
+            } else if (c == ']' && --depth == 0) {
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * @return Index after the quantifier (with its lazy or possessive suffix) at the given index,
+     * or the index itself if there is none.
+     */
+    private static int skipQuantifier(final @NonNull String regex, final int start, final boolean comments) {
+        int i = nextToken(regex, start, comments);
+        if (i == regex.length() || QUANTIFIERS.indexOf(regex.charAt(i)) < 0) {
+            return start;
+        }
+        if (regex.charAt(i) == '{') {
+            final int end = regex.indexOf('}', i);
+            i = end < 0 ? regex.length() : end;
+        }
+        i = nextToken(regex, i + 1, comments);
+        if (i < regex.length() && (regex.charAt(i) == '?' || regex.charAt(i) == '+')) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * @return Index of the next character which is not whitespace ignored with {@link Pattern#COMMENTS}.
+     */
+    private static int nextToken(final @NonNull String regex, final int start, final boolean comments) {
+        int i = start;
+        while (comments && i < regex.length() && LiteralPattern.isCommentsWhitespace(regex.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+}
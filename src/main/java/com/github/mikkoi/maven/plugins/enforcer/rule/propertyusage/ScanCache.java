@@ -0,0 +1,416 @@
+package com.github.mikkoi.maven.plugins.enforcer.rule.propertyusage;
+
+import org.apache.maven.enforcer.rule.api.EnforcerLogger;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * On-disk cache of results per scanned file.
+ * <p>
+ * Every entry is stored with the fingerprint of the file (size, modification time
+ * and, optionally, a hash of the content) it was computed from.
+ * An entry is served only if the file still has the same fingerprint.
+ * The whole cache is discarded if the configuration key differs from the one
+ * it was saved with, e.g. when the templates or encoding have changed.
+ * <p>
+ * Only the entries which were read or written during this run are saved,
+ * so files no longer scanned drop out of the cache.
+ * <p>
+ * When the changed files are known, e.g. from version control, the entries of all
+ * the other files in the base revision are served without comparing fingerprints. A cache saved by
+ * the build of the base revision is then a baseline for the files a change does not touch,
+ * even after a fresh checkout has given every file a new modification time.
+ * This is done only if the cache was saved with the same base revision, and only
+ * for the entries of the files which were not changed then either; the other entries,
+ * and the entries of the files not in the base revision, e.g. ignored generated files,
+ * are compared by fingerprint.
+ *
+ * @param <T> Type of the result stored per file.
+ */
+final class ScanCache<T> {
+
+    private static final int FORMAT_VERSION = 2;
+
+    /**
+     * Longest string in the cache file, in bytes. A longer one means the file is corrupt.
+     */
+    private static final int MAX_STRING_LENGTH = 1 << 24;
+
+    /**
+     * Largest number of items in the cache file. A larger one means the file is corrupt.
+     */
+    private static final int MAX_COUNT = 1 << 28;
+
+    /**
+     * Largest capacity allocated up front for the items read.
+     */
+    private static final int MAX_INITIAL_CAPACITY = 1024;
+
+    /**
+     * Read and write one cached result.
+     *
+     * @param <T> Type of the result.
+     */
+    interface Codec<T> {
+        void write(@NonNull DataOutputStream out, @NonNull T value) throws IOException;
+
+        @NonNull T read(@NonNull DataInputStream in) throws IOException;
+    }
+
+    private static final class Entry<T> {
+        private final @NonNull Fingerprint fingerprint;
+        private final @NonNull T value;
+
+        /**
+         * The file was not changed since the base revision the cache was saved with.
+         */
+        private final boolean baseline;
+
+        Entry(final @NonNull Fingerprint fingerprint, final @NonNull T value, final boolean baseline) {
+            this.fingerprint = fingerprint;
+            this.value = value;
+            this.baseline = baseline;
+        }
+    }
+
+    private final @NonNull Path file;
+
+    private final @NonNull String configKey;
+
+    private final @NonNull Codec<T> codec;
+
+    private final boolean contentHash;
+
+    private final @NonNull EnforcerLogger log;
+
+    private final @NonNull Map<String, Entry<T>> loaded = new ConcurrentHashMap<>();
+
+    private final @NonNull Map<String, Entry<T>> current = new ConcurrentHashMap<>();
+
+    private final @NonNull LongAdder hits = new LongAdder();
+
+    private final @NonNull LongAdder misses = new LongAdder();
+
+    private @Nullable Set<String> changedFiles;
+
+    /**
+     * Files in the base revision, null if the changed files are not known.
+     */
+    private @Nullable Set<String> trackedFiles;
+
+    /**
+     * Base revision of the changed files, empty if they are not known.
+     */
+    private @NonNull String baseRevision = "";
+
+    /**
+     * Base revision the loaded cache was saved with, empty if none.
+     */
+    private @NonNull String loadedBaseRevision = "";
+
+    /**
+     * @param file        File to load the cache from and save it to.
+     * @param configKey   Key describing the configuration the results depend on.
+     * @param codec       Reader and writer for the result.
+     * @param contentHash Compare file content hashes instead of modification times.
+     * @param log         Logger.
+     */
+    ScanCache(
+            final @NonNull Path file,
+            final @NonNull String configKey,
+            final @NonNull Codec<T> codec,
+            final boolean contentHash,
+            final @NonNull EnforcerLogger log) {
+        this.file = file;
+        this.configKey = digest(configKey + "|contentHash=" + contentHash);
+        this.codec = codec;
+        this.contentHash = contentHash;
+        this.log = log;
+    }
+
+    /**
+     * Read the cache file, if it exists and matches the configuration.
+     * A missing or unreadable cache file is not an error, the cache is just empty.
+     *
+     * @return this
+     */
+    @NonNull ScanCache<T> load() {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != FORMAT_VERSION || !configKey.equals(readString(in))) {
+                log.debug("Scan cache '" + file + "' was made with different configuration, ignoring it.");
+                return this;
+            }
+            loadedBaseRevision = readString(in);
+            final int count = readCount(in);
+            for (int i = 0; i < count; i++) {
+                final String filename = readString(in);
+                final long size = in.readLong();
+                final long modified = in.readLong();
+                final String hash = in.readBoolean() ? readString(in) : null;
+                final boolean baseline = in.readBoolean();
+                loaded.put(filename, new Entry<>(new Fingerprint(size, modified, hash), codec.read(in), baseline));
+            }
+            log.debug("Scan cache '" + file + "' loaded with " + count + " entries.");
+        } catch (NoSuchFileException e) {
+            log.debug("Scan cache '" + file + "' does not exist yet.");
+        } catch (IOException | RuntimeException e) {
+            log.warn("Cannot read scan cache '" + file + "', ignoring it: " + e);
+            loaded.clear();
+            loadedBaseRevision = "";
+        }
+        return this;
+    }
+
+    /**
+     * @param changedFiles Files changed since the base revision, or null if not known.
+     *                     If known, and the cache was saved with the same base revision,
+     *                     the other tracked files are taken to be unchanged.
+     * @param trackedFiles Files in the base revision, or null if not known.
+     *                     Files not in it are always compared by fingerprint.
+     * @param baseRevision Commit id of the base revision, or null if not known.
+     */
+    void setChangedFiles(
+            final @Nullable Set<String> changedFiles,
+            final @Nullable Set<String> trackedFiles,
+            final @Nullable String baseRevision) {
+        final boolean known = changedFiles != null && trackedFiles != null
+                && baseRevision != null && !baseRevision.isEmpty();
+        this.changedFiles = known ? changedFiles : null;
+        this.trackedFiles = known ? trackedFiles : null;
+        this.baseRevision = known ? baseRevision : "";
+        if (known && !baseRevision.equals(loadedBaseRevision)) {
+            log.debug("Scan cache '" + file + "' was saved with base revision '" + loadedBaseRevision
+                    + "', not '" + baseRevision + "', comparing fingerprints.");
+        }
+    }
+
+    /**
+     * Save the entries used in this run.
+     */
+    void save() throws IOException {
+        final Path dir = file.toAbsolutePath().getParent();
+        if (dir != null) {
+            Files.createDirectories(dir);
+        }
+        final Path tmp = Paths.get(file + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            out.writeInt(FORMAT_VERSION);
+            writeString(out, configKey);
+            writeString(out, baseRevision);
+            out.writeInt(current.size());
+            for (final Map.Entry<String, Entry<T>> entry : current.entrySet()) {
+                final Fingerprint fingerprint = entry.getValue().fingerprint;
+                writeString(out, entry.getKey());
+                out.writeLong(fingerprint.size);
+                out.writeLong(fingerprint.modified);
+                out.writeBoolean(fingerprint.hash != null);
+                if (fingerprint.hash != null) {
+                    writeString(out, fingerprint.hash);
+                }
+                out.writeBoolean(isUnchanged(entry.getKey()));
+                codec.write(out, entry.getValue().value);
+            }
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+        log.debug("Scan cache '" + file + "' saved with " + current.size() + " entries.");
+    }
+
+    /**
+     * @param filename File name.
+     * @return Cached result, if the file has not changed since, otherwise null.
+     * @see #setChangedFiles(Set, Set, String)
+     */
+    @Nullable T get(final @NonNull String filename) throws IOException {
+        final Entry<T> entry = loaded.get(filename);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        final Set<String> changed = changedFiles;
+        final Set<String> tracked = trackedFiles;
+        final boolean trusted = changed != null && tracked != null && entry.baseline
+                && baseRevision.equals(loadedBaseRevision) && tracked.contains(filename);
+        if (trusted ? changed.contains(filename)
+                : !entry.fingerprint.matches(fingerprint(filename, entry.fingerprint.size))) {
+            log.debug(() -> "Scan cache entry for '" + filename + "' is stale.");
+            misses.increment();
+            return null;
+        }
+        current.put(filename, entry);
+        hits.increment();
+        return entry.value;
+    }
+
+    /**
+     * @param filename File name.
+     * @return The file is in the base revision and has not been changed since.
+     */
+    private boolean isUnchanged(final @NonNull String filename) {
+        final Set<String> changed = changedFiles;
+        final Set<String> tracked = trackedFiles;
+        return changed != null && tracked != null && tracked.contains(filename) && !changed.contains(filename);
+    }
+
+    /**
+     * @return Number of files whose result was taken from the cache.
+     */
+    long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return Number of files not in the cache or changed since.
+     */
+    long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * @param filename File name.
+     * @param value    Result computed from the file.
+     */
+    void put(final @NonNull String filename, final @NonNull T value) throws IOException {
+        current.put(filename, new Entry<>(fingerprint(filename, -1), value, false));
+    }
+
+    /**
+     * @param filename File name.
+     * @param knownSize Size of the file in the cache. Content is hashed only if the size matches.
+     */
+    private @NonNull Fingerprint fingerprint(final @NonNull String filename, final long knownSize) throws IOException {
+        final Path path = Paths.get(filename);
+        final BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        final long size = attributes.size();
+        final String hash = contentHash && (knownSize < 0 || knownSize == size) ? hash(path) : null;
+        return new Fingerprint(size, attributes.lastModifiedTime().toMillis(), hash);
+    }
+
+    private static @NonNull String hash(final @NonNull Path path) throws IOException {
+        final MessageDigest md = sha256();
+        final byte[] buffer = new byte[8192];
+        try (InputStream in = Files.newInputStream(path)) {
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                md.update(buffer, 0, read);
+            }
+        }
+        return toHex(md.digest());
+    }
+
+    /**
+     * @param text Text to digest.
+     * @return SHA-256 of the text as hex string.
+     */
+    static @NonNull String digest(final @NonNull String text) {
+        return toHex(sha256().digest(text.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static @NonNull MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static @NonNull String toHex(final byte @NonNull [] bytes) {
+        final StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (final byte b : bytes) {
+            sb.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Write a string of any length, unlike {@link DataOutputStream#writeUTF(String)}.
+     */
+    static void writeString(final @NonNull DataOutputStream out, final @NonNull String value) throws IOException {
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Read a string written with {@link #writeString(DataOutputStream, String)}.
+     *
+     * @throws IOException If the length is not valid.
+     */
+    static @NonNull String readString(final @NonNull DataInputStream in) throws IOException {
+        final int length = in.readInt();
+        if (length < 0 || length > MAX_STRING_LENGTH) {
+            throw new IOException("Invalid string length " + length + " in scan cache");
+        }
+        final byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Read the number of items which follow.
+     *
+     * @throws IOException If the number is not valid.
+     */
+    static int readCount(final @NonNull DataInputStream in) throws IOException {
+        final int count = in.readInt();
+        if (count < 0 || count > MAX_COUNT) {
+            throw new IOException("Invalid count " + count + " in scan cache");
+        }
+        return count;
+    }
+
+    /**
+     * @param count Number of items to read, from {@link #readCount(DataInputStream)}.
+     * @return Capacity to allocate for them up front, not trusting a large count.
+     */
+    static int initialCapacity(final int count) {
+        return Math.min(count, MAX_INITIAL_CAPACITY);
+    }
+
+    /**
+     * What is known of a file's content without reading the results again.
+     */
+    private static final class Fingerprint {
+        private final long size;
+        private final long modified;
+        private final @Nullable String hash;
+
+        Fingerprint(final long size, final long modified, final @Nullable String hash) {
+            this.size = size;
+            this.modified = modified;
+            this.hash = hash;
+        }
+
+        /**
+         * With a content hash, the modification time does not matter.
+         */
+        boolean matches(final @NonNull Fingerprint other) {
+            if (size != other.size) {
+                return false;
+            }
+            if (hash != null && other.hash != null) {
+                return hash.equals(other.hash);
+            }
+            return hash == null && other.hash == null && modified == other.modified;
+        }
+    }
+}
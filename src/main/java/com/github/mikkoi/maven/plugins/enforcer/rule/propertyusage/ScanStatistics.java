@@ -0,0 +1,164 @@
+package com.github.mikkoi.maven.plugins.enforcer.rule.propertyusage;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Timings and counters of one rule execution.
+ * <p>
+ * Phases are timed in the thread running the rule,
+ * the counters may be updated from the scanning threads.
+ */
+final class ScanStatistics {
+
+    static final String PHASE_DISCOVERY = "discovery";
+    static final String PHASE_DEFINITIONS = "definitions";
+    static final String PHASE_TEMPLATES = "templates";
+    static final String PHASE_DEFINED_USAGES = "definedUsages";
+    static final String PHASE_ALL_USAGES = "allUsages";
+    static final String PHASE_USAGES = "usages";
+
+    private final @NonNull Map<String, Long> phaseNanos = new LinkedHashMap<>();
+
+    private final @NonNull LongAdder filesScanned = new LongAdder();
+
+    private final @NonNull LongAdder bytesRead = new LongAdder();
+
+    private final @NonNull LongAdder patternsCompiled = new LongAdder();
+
+    private final @NonNull LongAdder matchesFound = new LongAdder();
+
+    private final @NonNull LongAdder cacheHits = new LongAdder();
+
+    private final @NonNull LongAdder cacheMisses = new LongAdder();
+
+    /**
+     * @return Start time to give to {@link #endPhase(String, long)}.
+     */
+    long startPhase() {
+        return System.nanoTime();
+    }
+
+    /**
+     * Add the time since start to the phase. A phase can be timed in several parts.
+     *
+     * @param phase      Name of the phase.
+     * @param startNanos Value from {@link #startPhase()}.
+     */
+    void endPhase(final @NonNull String phase, final long startNanos) {
+        phaseNanos.merge(phase, System.nanoTime() - startNanos, Long::sum);
+    }
+
+    /**
+     * @param bytes Number of bytes read from the file.
+     */
+    void fileScanned(final long bytes) {
+        filesScanned.increment();
+        bytesRead.add(bytes);
+    }
+
+    void patternsCompiled(final long count) {
+        patternsCompiled.add(count);
+    }
+
+    void matchFound() {
+        matchesFound.increment();
+    }
+
+    /**
+     * @param cache Cache whose hits and misses to add.
+     */
+    void addCache(final @NonNull ScanCache<?> cache) {
+        cacheHits.add(cache.getHits());
+        cacheMisses.add(cache.getMisses());
+    }
+
+    long getFilesScanned() {
+        return filesScanned.sum();
+    }
+
+    long getBytesRead() {
+        return bytesRead.sum();
+    }
+
+    long getPatternsCompiled() {
+        return patternsCompiled.sum();
+    }
+
+    long getMatchesFound() {
+        return matchesFound.sum();
+    }
+
+    long getCacheHits() {
+        return cacheHits.sum();
+    }
+
+    long getCacheMisses() {
+        return cacheMisses.sum();
+    }
+
+    /**
+     * @param phase Name of the phase.
+     * @return Time spent in the phase in milliseconds, 0 if the phase was not run.
+     */
+    long getPhaseMillis(final @NonNull String phase) {
+        return TimeUnit.NANOSECONDS.toMillis(phaseNanos.getOrDefault(phase, 0L));
+    }
+
+    /**
+     * @return One line summary for the build log.
+     */
+    @NonNull String summary() {
+        final StringBuilder sb = new StringBuilder("Property usage statistics:");
+        phaseNanos.keySet().forEach(phase -> sb.append(' ').append(phase).append(' ')
+                .append(getPhaseMillis(phase)).append(" ms,"));
+        sb.append(' ').append(getFilesScanned()).append(" files scanned (")
+                .append(String.format(Locale.ROOT, "%.1f", getBytesRead() / (1024.0 * 1024.0))).append(" MiB),")
+                .append(' ').append(getPatternsCompiled()).append(" patterns compiled,")
+                .append(' ').append(getMatchesFound()).append(" matches found,")
+                .append(" cache hits ").append(getCacheHits()).append('/').append(getCacheHits() + getCacheMisses())
+                .append('.');
+        return sb.toString();
+    }
+
+    /**
+     * @return The statistics as a JSON object.
+     */
+    @NonNull String toJson() {
+        final StringBuilder sb = new StringBuilder("{\n  \"phasesMillis\": {");
+        String separator = "\n";
+        for (final String phase : phaseNanos.keySet()) {
+            sb.append(separator).append("    \"").append(phase).append("\": ").append(getPhaseMillis(phase));
+            separator = ",\n";
+        }
+        sb.append(phaseNanos.isEmpty() ? "},\n" : "\n  },\n")
+                .append("  \"filesScanned\": ").append(getFilesScanned()).append(",\n")
+                .append("  \"bytesRead\": ").append(getBytesRead()).append(",\n")
+                .append("  \"patternsCompiled\": ").append(getPatternsCompiled()).append(",\n")
+                .append("  \"matchesFound\": ").append(getMatchesFound()).append(",\n")
+                .append("  \"cacheHits\": ").append(getCacheHits()).append(",\n")
+                .append("  \"cacheMisses\": ").append(getCacheMisses()).append('\n')
+                .append("}\n");
+        return sb.toString();
+    }
+
+    /**
+     * @param file File to write the statistics to as JSON.
+     */
+    void writeJson(final @NonNull Path file) throws IOException {
+        final Path dir = file.toAbsolutePath().getParent();
+        if (dir != null) {
+            Files.createDirectories(dir);
+        }
+        Files.write(file, toJson().getBytes(StandardCharsets.UTF_8));
+    }
+}
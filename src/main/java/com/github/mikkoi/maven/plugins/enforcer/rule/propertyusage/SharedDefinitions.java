@@ -0,0 +1,93 @@
+package com.github.mikkoi.maven.plugins.enforcer.rule.propertyusage;
+
+import org.apache.maven.execution.MavenSession;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Property definitions read from each file, shared by all the executions of the rule in one Maven session.
+ * <p>
+ * When many modules point their definitions to the same files, e.g. in a parent module,
+ * every file is parsed only once per build. An entry is used only while the file
+ * has the same size and modification time as when it was parsed.
+ */
+final class SharedDefinitions {
+
+    /**
+     * The indexes of the sessions still running. Released with the session.
+     */
+    private static final Map<MavenSession, SharedDefinitions> SESSION_INDEXES = new WeakHashMap<>();
+
+    private static final class Entry {
+        private final long size;
+        private final long modified;
+        private final @NonNull List<PropertyDefinition> definitions;
+
+        Entry(final long size, final long modified, final @NonNull List<PropertyDefinition> definitions) {
+            this.size = size;
+            this.modified = modified;
+            this.definitions = definitions;
+        }
+    }
+
+    /**
+     * Entries by absolute file name and charset.
+     */
+    private final @NonNull Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * @param session Maven session.
+     * @return The index of the session.
+     */
+    static @NonNull SharedDefinitions forSession(final @NonNull MavenSession session) {
+        synchronized (SESSION_INDEXES) {
+            return SESSION_INDEXES.computeIfAbsent(session, s -> new SharedDefinitions());
+        }
+    }
+
+    /**
+     * @param filename Absolute file name.
+     * @param charset  Character set the file is read with.
+     * @return Definitions read from the file, if it has not changed since, otherwise null.
+     */
+    @Nullable List<PropertyDefinition> get(final @NonNull String filename, final @NonNull Charset charset) throws IOException {
+        final Entry entry = entries.get(key(filename, charset));
+        if (entry == null) {
+            return null;
+        }
+        final BasicFileAttributes attributes = Files.readAttributes(Paths.get(filename), BasicFileAttributes.class);
+        if (attributes.size() != entry.size || attributes.lastModifiedTime().toMillis() != entry.modified) {
+            return null;
+        }
+        return entry.definitions;
+    }
+
+    /**
+     * @param filename    Absolute file name.
+     * @param charset     Character set the file was read with.
+     * @param definitions Definitions read from the file.
+     */
+    void put(
+            final @NonNull String filename,
+            final @NonNull Charset charset,
+            final @NonNull List<PropertyDefinition> definitions) throws IOException {
+        final BasicFileAttributes attributes = Files.readAttributes(Paths.get(filename), BasicFileAttributes.class);
+        entries.put(key(filename, charset), new Entry(attributes.size(), attributes.lastModifiedTime().toMillis(),
+                Collections.unmodifiableList(definitions)));
+    }
+
+    private static @NonNull String key(final @NonNull String filename, final @NonNull Charset charset) {
+        return filename + '|' + charset.name();
+    }
+}
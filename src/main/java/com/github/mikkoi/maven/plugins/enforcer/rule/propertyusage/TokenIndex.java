@@ -0,0 +1,145 @@
+package com.github.mikkoi.maven.plugins.enforcer.rule.propertyusage;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Find the usages of the defined properties by looking up the tokens of the text.
+ * <p>
+ * Works with templates which are plain text around the placeholder,
+ * like the default template <code>"REPLACE_THIS"</code>: a prefix and a suffix.
+ * A token is a run of characters which appear in property names,
+ * right after a prefix. If the first character of the suffix never appears
+ * in a property name, the only property the prefix can start is the whole token,
+ * and only if the suffix follows it. So every line is tokenized once, and every
+ * token is one hash lookup, however many properties are defined.
+ * The result is the same as with the expanded templates, except that the property names
+ * are compared literally: a '.' in a name matches only a '.'.
+ */
+final class TokenIndex {
+
+    private static final int FLAGS = Pattern.COMMENTS | Pattern.UNICODE_CHARACTER_CLASS;
+
+    /**
+     * Text before the placeholder, per template.
+     */
+    private final @NonNull String @NonNull [] prefixes;
+
+    /**
+     * Text after the placeholder, per template.
+     */
+    private final @NonNull String @NonNull [] suffixes;
+
+    /**
+     * Characters appearing in property names.
+     */
+    private final @NonNull BitSet nameChars;
+
+    private final @NonNull Map<String, Integer> propertyIds;
+
+    private TokenIndex(
+            final @NonNull String @NonNull [] prefixes,
+            final @NonNull String @NonNull [] suffixes,
+            final @NonNull BitSet nameChars,
+            final @NonNull Map<String, Integer> propertyIds) {
+        this.prefixes = prefixes;
+        this.suffixes = suffixes;
+        this.nameChars = nameChars;
+        this.propertyIds = propertyIds;
+    }
+
+    /**
+     * @param templates   Templates (regexp), containing the placeholder.
+     * @param placeholder Placeholder (regexp) in the templates.
+     * @param matcher     Matcher whose properties to look for, with the same indexes.
+     * @return The index, or null if the templates or the property names do not allow it.
+     */
+    static @Nullable TokenIndex compile(
+            final @NonNull Collection<String> templates,
+            final @NonNull String placeholder,
+            final @NonNull UsageMatcher matcher) {
+        final BitSet nameChars = new BitSet();
+        final Map<String, Integer> propertyIds = new HashMap<>();
+        for (int property = 0; property < matcher.size(); property++) {
+            final String name = matcher.getProperty(property);
+            if (name.isEmpty()) {
+                return null;
+            }
+            name.chars().forEach(nameChars::set);
+            propertyIds.put(name, property);
+        }
+        final String[] prefixes = new String[templates.size()];
+        final String[] suffixes = new String[templates.size()];
+        final Pattern placeholderPattern = Pattern.compile(placeholder);
+        int t = 0;
+        for (final String template : templates) {
+            final Matcher m = placeholderPattern.matcher(template);
+            if (!m.find()) {
+                return null;
+            }
+            final String prefix = LiteralPattern.literal(template.substring(0, m.start()), FLAGS);
+            final String suffix = LiteralPattern.literal(template.substring(m.end()), FLAGS);
+            if (m.find() || prefix == null || prefix.isEmpty() || suffix == null || suffix.isEmpty()
+                    || nameChars.get(suffix.charAt(0))) {
+                return null;
+            }
+            prefixes[t] = prefix;
+            suffixes[t] = suffix;
+            t++;
+        }
+        return new TokenIndex(prefixes, suffixes, nameChars, propertyIds);
+    }
+
+    /**
+     * Find the properties used in the text.
+     *
+     * @param text  Text to search.
+     * @param found Set to clear and reuse for the result.
+     * @return Indexes of the properties used in the text.
+     */
+    @NonNull BitSet find(final @NonNull CharSequence text, final @NonNull BitSet found) {
+        found.clear();
+        final int length = text.length();
+        for (int t = 0; t < prefixes.length; t++) {
+            final String prefix = prefixes[t];
+            final String suffix = suffixes[t];
+            final char first = prefix.charAt(0);
+            for (int i = 0; i <= length - prefix.length(); i++) {
+                if (text.charAt(i) != first || !startsWith(text, i, prefix)) {
+                    continue;
+                }
+                final int start = i + prefix.length();
+                int end = start;
+                while (end < length && nameChars.get(text.charAt(end))) {
+                    end++;
+                }
+                if (end > start && startsWith(text, end, suffix)) {
+                    final Integer property = propertyIds.get(text.subSequence(start, end).toString());
+                    if (property != null) {
+                        found.set(property);
+                    }
+                }
+            }
+        }
+        return found;
+    }
+
+    private static boolean startsWith(final @NonNull CharSequence text, final int offset, final @NonNull String s) {
+        if (offset + s.length() > text.length()) {
+            return false;
+        }
+        for (int i = 0; i < s.length(); i++) {
+            if (text.charAt(offset + i) != s.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -3,11 +3,20 @@ package com.github.mikkoi.maven.plugins.enforcer.rule.propertyusage;
 import org.apache.maven.enforcer.rule.api.EnforcerLogger;
 
 import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
 import java.nio.charset.Charset;
-import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BooleanSupplier;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -18,42 +27,234 @@ class UsageFiles {
 
     private final EnforcerLogger log;
 
+    /**
+     * Debug logging is enabled. Checked before building messages in the scanning loops.
+     */
+    private final boolean debug;
+
+    /**
+     * Number of threads to scan files with. With 1, files are scanned in the calling thread.
+     */
+    private final int scanThreads;
+
+    /**
+     * Optional cache for the properties found in each file by readDefinedUsagesFromFiles().
+     */
+    private @Nullable ScanCache<Set<String>> definedUsagesCache;
+
+    /**
+     * Optional cache for the usages found in each file by readAllUsagesFromFiles().
+     */
+    private @Nullable ScanCache<UsageTable> allUsagesCache;
+
+    /**
+     * Find every usage of any property on a line, not only the first one per template.
+     */
+    private boolean allUsagesPerLine;
+
+    /**
+     * Read the files by mapping them into memory.
+     */
+    private boolean memoryMapped;
+
+    /**
+     * Optional token index for finding the defined properties, instead of the matcher's templates.
+     */
+    private @Nullable TokenIndex tokenIndex;
+
+    /**
+     * Optional reading of the files ahead of the scanning.
+     */
+    private @Nullable FileReadAhead readAhead;
+
+    /**
+     * Contents of the files read ahead, until the scanning thread opens them.
+     */
+    private final @NonNull Map<String, byte[]> readAheadContents = new ConcurrentHashMap<>();
+
+    private @NonNull ScanStatistics statistics = new ScanStatistics();
+
     UsageFiles(final EnforcerLogger log) {
+        this(log, 1);
+    }
+
+    UsageFiles(final EnforcerLogger log, final int scanThreads) {
         this.log = log;
+        this.debug = log.isDebugEnabled();
+        this.scanThreads = Math.max(1, scanThreads);
+    }
+
+    void setDefinedUsagesCache(final @Nullable ScanCache<Set<String>> definedUsagesCache) {
+        this.definedUsagesCache = definedUsagesCache;
+    }
+
+    void setAllUsagesCache(final @Nullable ScanCache<UsageTable> allUsagesCache) {
+        this.allUsagesCache = allUsagesCache;
+    }
+
+    void setAllUsagesPerLine(final boolean allUsagesPerLine) {
+        this.allUsagesPerLine = allUsagesPerLine;
+    }
+
+    void setMemoryMapped(final boolean memoryMapped) {
+        this.memoryMapped = memoryMapped;
+    }
+
+    void setStatistics(final @NonNull ScanStatistics statistics) {
+        this.statistics = statistics;
+    }
+
+    void setTokenIndex(final @Nullable TokenIndex tokenIndex) {
+        this.tokenIndex = tokenIndex;
+    }
+
+    void setReadAhead(final @Nullable FileReadAhead readAhead) {
+        this.readAhead = readAhead;
+    }
+
+    /**
+     * Open the lines of a file, from the content read ahead if there is one,
+     * otherwise memory-mapped if so configured.
+     */
+    private @NonNull LineSource openLines(final @NonNull String filename, final @NonNull Charset charset) throws IOException {
+        final byte[] content = readAheadContents.remove(filename);
+        if (content != null) {
+            return LineReader.open(content, charset);
+        }
+        if (memoryMapped) {
+            return MappedLineReader.open(Paths.get(filename), charset);
+        }
+        return LineReader.open(Paths.get(filename), charset);
     }
 
     /**
      * Read usages by matching the property name in template.
-     * this is substituted with the property name.
+     * Every file is read line by line, and every line is scanned only once
+     * for all the property names. The templates are then verified
+     * against the line for the property names found.
+     * A property which has been found is not searched for in the rest of the files,
+     * and the scanning stops when all the properties have been found.
+     * With a token index, the properties used on a line are looked up from its tokens
+     * and need no verification.
+     * <p>
+     * With a cache, the results of unchanged files are taken from the cache first.
+     * The changed files are then scanned for all the properties,
+     * so that their cache entries are complete.
      *
      * @param filenames  Collection of file names to search for property usage.
-     * @param templatesAndProperties  Collection of templates (regexp) to use for matching, and their equivalent property.
-     * @return Map of usages not found and their location (file,row), though location does not matter here.
+     * @param matcher    Matcher for all properties and their templates.
+     * @return Set of properties found.
      */
     @NonNull Set<String> readDefinedUsagesFromFiles(
             final @NonNull Collection<String> filenames,
-            final @NonNull Map<String,String> templatesAndProperties,
+            final @NonNull UsageMatcher matcher,
             final @NonNull Charset charset)
             throws IOException {
-        final Set<String> results = new HashSet<>();
-        final Map<Pattern,String> tplPatterns = new HashMap<>();
-        templatesAndProperties.forEach((tpl,property) -> tplPatterns.put(Pattern.compile(tpl, Pattern.COMMENTS | Pattern.UNICODE_CHARACTER_CLASS),property));
-        for (final String filename : filenames) {
-            log.debug("Reading file '" + filename + "'.");
-            final String allFile = String.join("", Files.readAllLines(Paths.get(filename), charset));
-            tplPatterns.forEach((tplP, property) -> {
-                log.debug("    Matching pattern '" + tplP.pattern() + "'.");
-                log.debug("        Matching with allFile '" + allFile + "'.");
-                final Matcher matcher = tplP.matcher(allFile);
-                if (matcher.find()) {
-                    log.debug("        Pattern match found (" + filename + ")" + ", pattern '" + tplP.pattern() + "'.");
-                    results.add(property);
+        final Set<String> results = ConcurrentHashMap.newKeySet();
+        final ScanCache<Set<String>> cache = definedUsagesCache;
+        if (cache == null) {
+            forEachFile(filenames, matcher::allResolved, filename -> {
+                log.debug(() -> "Reading file '" + filename + "'.");
+                final BitSet candidates = new BitSet(matcher.size());
+                try (LineSource lines = openLines(filename, charset)) {
+                    for (CharSequence row = lines.readLine(); row != null && !matcher.allResolved(); row = lines.readLine()) {
+                        findDefinedUsages(row, filename, lines.getLineNumber(), matcher, candidates, null, results);
+                    }
+                    statistics.fileScanned(lines.getBytesRead());
+                }
+            });
+        } else {
+            final List<String> changedFilenames = new ArrayList<>();
+            for (final String filename : filenames) {
+                final Set<String> cached = cache.get(filename);
+                if (cached == null) {
+                    changedFilenames.add(filename);
+                } else {
+                    log.debug(() -> "Using cached usages for file '" + filename + "'.");
+                    resolveAll(cached, matcher, results);
                 }
+            }
+            forEachFile(changedFilenames, () -> false, filename -> {
+                log.debug(() -> "Reading file '" + filename + "'.");
+                final BitSet candidates = new BitSet(matcher.size());
+                final Set<String> found = new HashSet<>();
+                try (LineSource lines = openLines(filename, charset)) {
+                    for (CharSequence row = lines.readLine(); row != null; row = lines.readLine()) {
+                        findDefinedUsages(row, filename, lines.getLineNumber(), matcher, candidates, found, results);
+                    }
+                    statistics.fileScanned(lines.getBytesRead());
+                }
+                cache.put(filename, found);
+                resolveAll(found, matcher, results);
             });
         }
+        if (matcher.allResolved()) {
+            log.debug("All properties found.");
+        }
         return results;
     }
 
+    private static void resolveAll(
+            final @NonNull Set<String> propertyNames,
+            final @NonNull UsageMatcher matcher,
+            final @NonNull Set<String> results) {
+        for (final String propertyName : propertyNames) {
+            final int property = matcher.indexOf(propertyName);
+            if (property >= 0 && matcher.resolve(property)) {
+                results.add(propertyName);
+            }
+        }
+    }
+
+    /**
+     * Find the defined properties used on one row.
+     * Without a set for the file, only the unresolved properties are searched for,
+     * and the ones found are resolved. With a set, all the properties are searched for
+     * and the ones found are added to the set, to be resolved when the file is done.
+     *
+     * @param row        Row to search.
+     * @param candidates Set to reuse for the candidates.
+     * @param found      Properties found in the file so far, or null.
+     * @param results    Properties resolved.
+     */
+    private void findDefinedUsages(
+            final @NonNull CharSequence row,
+            final @NonNull String filename,
+            final int lineNumber,
+            final @NonNull UsageMatcher matcher,
+            final @NonNull BitSet candidates,
+            final @Nullable Set<String> found,
+            final @NonNull Set<String> results) {
+        final TokenIndex index = tokenIndex;
+        if (index != null) {
+            index.find(row, candidates);
+        } else if (found == null) {
+            matcher.candidates(row, candidates);
+        } else {
+            matcher.allCandidates(row, candidates);
+        }
+        for (int property = candidates.nextSetBit(0); property >= 0; property = candidates.nextSetBit(property + 1)) {
+            final String propertyName = matcher.getProperty(property);
+            if (found == null ? matcher.isResolved(property) : found.contains(propertyName)) {
+                continue;
+            }
+            if (debug && index == null) {
+                log.debug("    Verifying candidate '" + propertyName + "'.");
+            }
+            if ((index != null || matcher.verify(property, row)) && (found != null || matcher.resolve(property))) {
+                if (debug) {
+                    log.debug("        Pattern match found (" + filename + ":" + lineNumber + ")" + ", property '" + propertyName + "'.");
+                }
+                statistics.matchFound();
+                if (found == null) {
+                    results.add(propertyName);
+                } else {
+                    found.add(propertyName);
+                }
+            }
+        }
+    }
+
     /**
      * @param filenames Collection of file names to search for property usage.
      * @param templates Map of templates (regexp) to use for matching,
@@ -65,32 +266,445 @@ class UsageFiles {
             final @NonNull Set<String> templates,
             final @NonNull Charset charset)
             throws IOException {
-        final Set<UsageLocation> foundProperties = new HashSet<>();
-        final ArrayList<Pattern> tplPatterns = new ArrayList<>();
+        final List<Pattern> tplPatterns = new ArrayList<>();
         templates.forEach(tpl -> tplPatterns.add(Pattern.compile(tpl, Pattern.COMMENTS | Pattern.UNICODE_CHARACTER_CLASS)));
+        statistics.patternsCompiled(tplPatterns.size());
+        return readAllUsagesFromFiles(filenames, tplPatterns, charset);
+    }
+
+    /**
+     * @param filenames   Collection of file names to search for property usage.
+     * @param tplPatterns Compiled templates, the first group captures the property name.
+     * @return Map of usages not found and their location (file, row).
+     */
+    @NonNull Set<UsageLocation> readAllUsagesFromFiles(
+            final @NonNull Collection<String> filenames,
+            final @NonNull List<Pattern> tplPatterns,
+            final @NonNull Charset charset)
+            throws IOException {
+        return locationsOf(readAllUsagesFromFilesGetTable(filenames, tplPatterns, charset));
+    }
+
+    /**
+     * Read the usages of any property into a compact table.
+     * A row is matched with a template only if it contains the text
+     * every match of the template requires, if there is one.
+     *
+     * @param filenames   Collection of file names to search for property usage.
+     * @param tplPatterns Compiled templates, the first group captures the property name.
+     * @return Usages and their location (file, row, column).
+     */
+    @NonNull UsageTable readAllUsagesFromFilesGetTable(
+            final @NonNull Collection<String> filenames,
+            final @NonNull List<Pattern> tplPatterns,
+            final @NonNull Charset charset)
+            throws IOException {
+        final UsageTable foundProperties = new UsageTable();
+        final ScanCache<UsageTable> cache = allUsagesCache;
+        final List<String> changedFilenames = new ArrayList<>();
         for (final String filename : filenames) {
-            log.debug("Reading file '" + filename + "'.");
-            final Collection<String> lines = Files.readAllLines(Paths.get(filename), charset);
-            tplPatterns.forEach(tplP -> {
-                log.debug("    Matching pattern '" + tplP.pattern() + "'.");
-                int rowNr = 1;
-                for (final String row : lines) {
-                    log.debug("        Matching with row '" + row + "'.");
-                    final Matcher matcher = tplP.matcher(row);
-                    if (matcher.find()) {
-                        log.debug("            Pattern match found (" + filename + ":" + rowNr + ")" + ", pattern '" + tplP.pattern() + "'.");
-                        @SuppressWarnings("nullness")
-                        final @NonNull String propName = matcher.group(1);
-                        log.debug("            Extracted property '" + propName + "'.");
-                        foundProperties.add(new UsageLocation(propName, rowNr, filename));
+            final UsageTable cached = cache == null ? null : cache.get(filename);
+            if (cached == null) {
+                changedFilenames.add(filename);
+            } else {
+                log.debug(() -> "Using cached usages for file '" + filename + "'.");
+                foundProperties.addAll(cached);
+            }
+        }
+        final LiteralPattern[] anchors = anchorsOf(tplPatterns);
+        forEachFile(changedFilenames, () -> false, filename -> {
+            log.debug(() -> "Reading file '" + filename + "'.");
+            final UsageTable found = new UsageTable();
+            final int fileId = found.fileId(filename);
+            final Matcher[] matchers = matchersOf(tplPatterns);
+            try (LineSource lines = openLines(filename, charset)) {
+                for (CharSequence row = lines.readLine(); row != null; row = lines.readLine()) {
+                    findAllUsages(row, filename, lines.getLineNumber(), matchers, anchors, fileId, found);
+                }
+                statistics.fileScanned(lines.getBytesRead());
+            }
+            if (cache != null) {
+                cache.put(filename, found);
+            }
+            synchronized (foundProperties) {
+                foundProperties.addAll(found);
+            }
+        });
+        return foundProperties;
+    }
+
+    private static @NonNull Set<UsageLocation> locationsOf(final @NonNull UsageTable table) {
+        final Set<UsageLocation> locations = new HashSet<>();
+        for (int usage = 0; usage < table.size(); usage++) {
+            locations.add(table.getLocation(usage));
+        }
+        return locations;
+    }
+
+    /**
+     * @param tplPatterns Compiled templates.
+     * @return A matcher per template, to reset for every row.
+     */
+    private static @NonNull Matcher @NonNull [] matchersOf(final @NonNull List<Pattern> tplPatterns) {
+        final Matcher[] matchers = new Matcher[tplPatterns.size()];
+        for (int t = 0; t < matchers.length; t++) {
+            matchers[t] = tplPatterns.get(t).matcher("");
+        }
+        return matchers;
+    }
+
+    /**
+     * @param tplPatterns Compiled templates.
+     * @return Per template, a search for the text every match requires, or null if there is none.
+     */
+    private @Nullable LiteralPattern @NonNull [] anchorsOf(final @NonNull List<Pattern> tplPatterns) {
+        final LiteralPattern[] anchors = new LiteralPattern[tplPatterns.size()];
+        for (int t = 0; t < anchors.length; t++) {
+            final Pattern tplP = tplPatterns.get(t);
+            final String anchor = RequiredLiteral.of(tplP);
+            log.debug(() -> "Pattern '" + tplP.pattern() + "' requires " + (anchor == null ? "no text." : "text '" + anchor + "'."));
+            anchors[t] = anchor == null ? null : LiteralPattern.of(anchor);
+        }
+        return anchors;
+    }
+
+    /**
+     * Find the usages of any property on one row: the first match of every template,
+     * or with {@link #allUsagesPerLine} every match, continuing from the previous one.
+     *
+     * @param row      Row to search.
+     * @param matchers Matchers of the compiled templates, the first group captures the property name.
+     * @param anchors  Per template, text the row must contain to match, or null.
+     * @param fileId   Id of the file in the table.
+     * @param found    Usages found in the file so far.
+     */
+    private void findAllUsages(
+            final @NonNull CharSequence row,
+            final @NonNull String filename,
+            final int rowNr,
+            final @NonNull Matcher @NonNull [] matchers,
+            final @Nullable LiteralPattern @NonNull [] anchors,
+            final int fileId,
+            final @NonNull UsageTable found) {
+        if (debug) {
+            log.debug("    Matching with row '" + row + "'.");
+        }
+        for (int t = 0; t < anchors.length; t++) {
+            final LiteralPattern anchor = anchors[t];
+            if (anchor != null && !anchor.find(row)) {
+                continue;
+            }
+            final Matcher matcher = matchers[t].reset(row);
+            while (matcher.find()) {
+                @SuppressWarnings("nullness")
+                final @NonNull String propName = matcher.group(1);
+                if (debug) {
+                    log.debug("        Pattern match found (" + filename + ":" + rowNr + ")" + ", pattern '" + matcher.pattern().pattern() + "'.");
+                    log.debug("        Extracted property '" + propName + "'.");
+                }
+                statistics.matchFound();
+                found.add(fileId, rowNr, matcher.start(1) + 1, found.propertyId(propName));
+                if (!allUsagesPerLine) {
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Read the usages of the defined properties and the usages of any property
+     * in one pass, like {@link #readDefinedUsagesFromFiles(Collection, UsageMatcher, Charset)} and
+     * {@link #readAllUsagesFromFiles(Collection, List, Charset)} together.
+     * Every file is read and decoded once, and every row is given to both searches.
+     * A file is not read if the results of both are in their caches.
+     *
+     * @param filenames   Collection of file names to search for property usage.
+     * @param matcher     Matcher for the defined properties and their templates.
+     * @param tplPatterns Compiled templates, the first group captures the property name.
+     * @return Defined properties found and usages of any property.
+     */
+    @NonNull ScanResult readUsagesFromFiles(
+            final @NonNull Collection<String> filenames,
+            final @NonNull UsageMatcher matcher,
+            final @NonNull List<Pattern> tplPatterns,
+            final @NonNull Charset charset)
+            throws IOException {
+        final Set<String> definedUsages = ConcurrentHashMap.newKeySet();
+        final UsageTable allUsages = new UsageTable();
+        final ScanCache<Set<String>> definedCache = definedUsagesCache;
+        final ScanCache<UsageTable> allCache = allUsagesCache;
+        // Files whose results are not both cached, and which of the results are.
+        final Set<String> changedFilenames = new LinkedHashSet<>();
+        final Set<String> definedCached = new HashSet<>();
+        final Set<String> allCached = new HashSet<>();
+        for (final String filename : filenames) {
+            final Set<String> cachedDefined = definedCache == null ? null : definedCache.get(filename);
+            if (cachedDefined != null) {
+                log.debug(() -> "Using cached usages for file '" + filename + "'.");
+                resolveAll(cachedDefined, matcher, definedUsages);
+                definedCached.add(filename);
+            }
+            final UsageTable cachedAll = allCache == null ? null : allCache.get(filename);
+            if (cachedAll != null) {
+                log.debug(() -> "Using cached usages of all properties for file '" + filename + "'.");
+                allUsages.addAll(cachedAll);
+                allCached.add(filename);
+            }
+            if (cachedDefined == null || cachedAll == null) {
+                changedFilenames.add(filename);
+            }
+        }
+        final LiteralPattern[] anchors = anchorsOf(tplPatterns);
+        forEachFile(changedFilenames, () -> false, filename -> {
+            final boolean scanDefined = !definedCached.contains(filename) && (definedCache != null || !matcher.allResolved());
+            final boolean scanAll = !allCached.contains(filename);
+            if (!scanDefined && !scanAll) {
+                return;
+            }
+            log.debug(() -> "Reading file '" + filename + "'.");
+            final BitSet candidates = new BitSet(matcher.size());
+            final Set<String> foundDefined = definedCache == null ? null : new HashSet<>();
+            final UsageTable foundAll = new UsageTable();
+            final int fileId = foundAll.fileId(filename);
+            final Matcher[] matchers = matchersOf(tplPatterns);
+            try (LineSource lines = openLines(filename, charset)) {
+                for (CharSequence row = lines.readLine(); row != null; row = lines.readLine()) {
+                    if (scanDefined && (foundDefined != null || !matcher.allResolved())) {
+                        findDefinedUsages(row, filename, lines.getLineNumber(), matcher, candidates, foundDefined, definedUsages);
+                    }
+                    if (scanAll) {
+                        findAllUsages(row, filename, lines.getLineNumber(), matchers, anchors, fileId, foundAll);
                     }
-                    rowNr += 1;
                 }
-            });
+                statistics.fileScanned(lines.getBytesRead());
+            }
+            if (scanDefined && definedCache != null && foundDefined != null) {
+                definedCache.put(filename, foundDefined);
+                resolveAll(foundDefined, matcher, definedUsages);
+            }
+            if (scanAll) {
+                if (allCache != null) {
+                    allCache.put(filename, foundAll);
+                }
+                synchronized (allUsages) {
+                    allUsages.addAll(foundAll);
+                }
+            }
+        });
+        return new ScanResult(definedUsages, allUsages);
+    }
+
+    /**
+     * Results of {@link #readUsagesFromFiles(Collection, UsageMatcher, List, Charset)}.
+     */
+    static final class ScanResult {
+
+        private final @NonNull Set<String> definedUsages;
+
+        private final @NonNull UsageTable allUsages;
+
+        ScanResult(final @NonNull Set<String> definedUsages, final @NonNull UsageTable allUsages) {
+            this.definedUsages = definedUsages;
+            this.allUsages = allUsages;
         }
-        return foundProperties;
+
+        /**
+         * @return Defined properties found.
+         */
+        @NonNull Set<String> getDefinedUsages() {
+            return definedUsages;
+        }
+
+        /**
+         * @return Usages of any property.
+         */
+        @NonNull Set<UsageLocation> getAllUsages() {
+            return locationsOf(allUsages);
+        }
+
+        /**
+         * @return Usages of any property, as a table.
+         */
+        @NonNull UsageTable getAllUsageTable() {
+            return allUsages;
+        }
+    }
+
+    /**
+     * Work done for one file.
+     */
+    @FunctionalInterface
+    private interface FileScan {
+        void scan(@NonNull String filename) throws IOException;
+    }
+
+    /**
+     * Run the scan for every file, either sequentially or,
+     * if more than one scan thread is configured, in a work-stealing pool.
+     * If reading ahead is configured, the files are read in a pipeline instead.
+     * The results must be collected into thread-safe collections.
+     *
+     * @param filenames Collection of file names to scan.
+     * @param done      When this returns true, the remaining files are skipped.
+     * @param fileScan  Scan to run for every file.
+     */
+    private void forEachFile(
+            final @NonNull Collection<String> filenames,
+            final @NonNull BooleanSupplier done,
+            final @NonNull FileScan fileScan)
+            throws IOException {
+        final FileReadAhead fileReadAhead = readAhead;
+        if (fileReadAhead != null && !memoryMapped && filenames.size() > 1) {
+            forEachFileReadAhead(fileReadAhead, new ArrayList<>(filenames), done, fileScan);
+            return;
+        }
+        if (scanThreads == 1 || filenames.size() < 2) {
+            for (final String filename : filenames) {
+                if (done.getAsBoolean()) {
+                    log.debug("Skipping the rest of the files.");
+                    return;
+                }
+                fileScan.scan(filename);
+            }
+            return;
+        }
+        log.debug(() -> "Scanning " + filenames.size() + " files with " + scanThreads + " threads.");
+        final ForkJoinPool pool = new ForkJoinPool(scanThreads);
+        try {
+            pool.submit(() -> filenames.parallelStream().forEach(filename -> {
+                if (done.getAsBoolean()) {
+                    return;
+                }
+                try {
+                    fileScan.scan(filename);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            })).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while scanning files");
+        } catch (ExecutionException e) {
+            for (Throwable t = e.getCause(); t != null; t = t.getCause()) {
+                if (t instanceof IOException) {
+                    throw (IOException) t;
+                }
+            }
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException(cause);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Run the scan for every file, reading the files ahead in a pipeline.
+     * The content read ahead is handed to {@link #openLines} through {@link #readAheadContents}.
+     *
+     * @param filenames Collection of file names to scan.
+     * @param done      When this returns true, the remaining files are skipped.
+     * @param fileScan  Scan to run for every file.
+     */
+    private void forEachFileReadAhead(
+            final @NonNull FileReadAhead fileReadAhead,
+            final @NonNull List<String> filenames,
+            final @NonNull BooleanSupplier done,
+            final @NonNull FileScan fileScan)
+            throws IOException {
+        fileReadAhead.forEachFile(filenames, scanThreads, done, (filename, content) -> {
+            if (content != null) {
+                readAheadContents.put(filename, content);
+            }
+            try {
+                fileScan.scan(filename);
+            } finally {
+                readAheadContents.remove(filename);
+            }
+        });
     }
 
+    /**
+     * Cache codec for the properties found in a file.
+     */
+    static final ScanCache.Codec<Set<String>> FOUND_PROPERTIES_CODEC = new ScanCache.Codec<Set<String>>() {
+        @Override
+        public void write(final @NonNull DataOutputStream out, final @NonNull Set<String> value) throws IOException {
+            out.writeInt(value.size());
+            for (final String propertyName : value) {
+                ScanCache.writeString(out, propertyName);
+            }
+        }
+
+        @Override
+        public @NonNull Set<String> read(final @NonNull DataInputStream in) throws IOException {
+            final int count = ScanCache.readCount(in);
+            final Set<String> value = new HashSet<>();
+            for (int i = 0; i < count; i++) {
+                value.add(ScanCache.readString(in));
+            }
+            return value;
+        }
+    };
+
+    /**
+     * Cache codec for the usages found in a file.
+     */
+    static final ScanCache.Codec<UsageTable> USAGE_TABLE_CODEC = new ScanCache.Codec<UsageTable>() {
+        @Override
+        public void write(final @NonNull DataOutputStream out, final @NonNull UsageTable value) throws IOException {
+            out.writeInt(value.getFileCount());
+            for (int f = 0; f < value.getFileCount(); f++) {
+                ScanCache.writeString(out, value.getFilename(f));
+            }
+            out.writeInt(value.getPropertyCount());
+            for (int p = 0; p < value.getPropertyCount(); p++) {
+                ScanCache.writeString(out, value.getProperty(p));
+            }
+            out.writeInt(value.size());
+            for (int u = 0; u < value.size(); u++) {
+                out.writeInt(value.getFileId(u));
+                out.writeInt(value.getLine(u));
+                out.writeInt(value.getColumn(u));
+                out.writeInt(value.getPropertyId(u));
+            }
+        }
+
+        @Override
+        public @NonNull UsageTable read(final @NonNull DataInputStream in) throws IOException {
+            final UsageTable value = new UsageTable();
+            final int fileCount = ScanCache.readCount(in);
+            for (int f = 0; f < fileCount; f++) {
+                value.fileId(ScanCache.readString(in));
+            }
+            final int propertyCount = ScanCache.readCount(in);
+            for (int p = 0; p < propertyCount; p++) {
+                value.propertyId(ScanCache.readString(in));
+            }
+            if (value.getFileCount() != fileCount || value.getPropertyCount() != propertyCount) {
+                throw new IOException("Duplicate file or property name in cache");
+            }
+            final int size = ScanCache.readCount(in);
+            for (int u = 0; u < size; u++) {
+                final int fileId = in.readInt();
+                final int line = in.readInt();
+                final int column = in.readInt();
+                final int propertyId = in.readInt();
+                if (fileId < 0 || fileId >= fileCount || propertyId < 0 || propertyId >= propertyCount
+                        || line < 0 || column < 0) {
+                    throw new IOException("Invalid usage in cache");
+                }
+                value.add(fileId, line, column, propertyId);
+            }
+            return value;
+        }
+    };
+
     static class UsageLocation {
 
         private @NonNull String property;
@@ -99,15 +713,28 @@ class UsageFiles {
 
         private @NonNull String filename;
 
+        private int column;
+
         /**
          * @param propertyVal Property name
          * @param rowVal      number
          * @param filenameVal Name of file
          */
         UsageLocation(final @NonNull String propertyVal, final int rowVal, final @NonNull String filenameVal) {
+            this(propertyVal, rowVal, filenameVal, 0);
+        }
+
+        /**
+         * @param propertyVal Property name
+         * @param rowVal      number
+         * @param filenameVal Name of file
+         * @param columnVal   Column of the property name, starting from 1, 0 if not known
+         */
+        UsageLocation(final @NonNull String propertyVal, final int rowVal, final @NonNull String filenameVal, final int columnVal) {
             property = propertyVal;
             row = rowVal;
             filename = filenameVal;
+            column = columnVal;
         }
 
         public @NonNull String getProperty() {
@@ -121,5 +748,9 @@ class UsageFiles {
         public @NonNull String getFilename() {
             return filename;
         }
+
+        int getColumn() {
+            return column;
+        }
     }
 }
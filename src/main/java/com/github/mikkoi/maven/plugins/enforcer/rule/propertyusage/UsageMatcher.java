@@ -0,0 +1,360 @@
+package com.github.mikkoi.maven.plugins.enforcer.rule.propertyusage;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * Match the usages of all defined properties in one pass over the text.
+ * <p>
+ * Every match of an expanded template (the template with the placeholder replaced
+ * by the property name) contains some text, found with {@link RequiredLiteral}:
+ * for a plain property name usually the name with the text around the placeholder.
+ * These texts are compiled into one {@link KeywordAutomaton}, and the text is scanned
+ * once to find out which properties can be used in it at all.
+ * Only for those candidates the expanded templates are run as regular expressions
+ * to verify the usage. The number of regexp scans is therefore proportional to
+ * the number of properties present in a file, not to the number of properties defined.
+ * A property whose expanded template has no such text, e.g. because of inline flags
+ * in the template, is a candidate everywhere.
+ * <p>
+ * A property is resolved once its usage has been verified.
+ * Resolved properties are no longer candidates, and when enough of them
+ * have been resolved the automaton is rebuilt with only the unresolved ones,
+ * so later files are searched only for the properties still missing.
+ */
+final class UsageMatcher {
+
+    private static final int FLAGS = Pattern.COMMENTS | Pattern.UNICODE_CHARACTER_CLASS;
+
+    private final @NonNull List<String> properties;
+
+    private final @NonNull List<String> templates;
+
+    private final @NonNull String placeholder;
+
+    /**
+     * Texts to search for, per property, or null if the property is a candidate everywhere.
+     */
+    private final @Nullable String @NonNull [] @Nullable [] keywords;
+
+    /**
+     * Automaton for all the properties.
+     */
+    private final @NonNull ActiveSet all;
+
+    /**
+     * Automaton for the properties which were unresolved when it was built.
+     */
+    private volatile @NonNull ActiveSet active;
+
+    private final @NonNull Map<String, Integer> indexes = new HashMap<>();
+
+    /**
+     * 1 for every property which has been found, 0 otherwise.
+     */
+    private final @NonNull AtomicIntegerArray resolved;
+
+    /**
+     * Number of properties not yet found.
+     */
+    private final @NonNull AtomicInteger unresolved;
+
+    /**
+     * Expanded template patterns, per property and template,
+     * compiled on first use. Files may be scanned concurrently.
+     */
+    private final @NonNull AtomicReferenceArray<@Nullable Predicate<CharSequence>> patterns;
+
+    /**
+     * Number of expanded template patterns compiled.
+     */
+    private final @NonNull LongAdder compiled = new LongAdder();
+
+    /**
+     * @param templates   Templates (regexp), containing the placeholder.
+     * @param placeholder Placeholder in the templates to replace with property name.
+     * @param properties  Names of the properties to look for.
+     */
+    UsageMatcher(
+            final @NonNull Collection<String> templates,
+            final @NonNull String placeholder,
+            final @NonNull Collection<String> properties) {
+        this.properties = new ArrayList<>(properties);
+        this.templates = new ArrayList<>(templates);
+        this.placeholder = placeholder;
+        this.resolved = new AtomicIntegerArray(this.properties.size());
+        this.unresolved = new AtomicInteger(this.properties.size());
+        this.keywords = keywordsOf(this.templates, placeholder, this.properties);
+        this.all = new ActiveSet(keywords, resolved);
+        this.active = all;
+        for (int i = 0; i < this.properties.size(); i++) {
+            indexes.put(this.properties.get(i), i);
+        }
+        this.patterns = new AtomicReferenceArray<>(this.properties.size() * this.templates.size());
+    }
+
+    /**
+     * @return The texts every usage of a property contains with any of the templates, per property.
+     * Null for a property if one of its expanded templates has no such text.
+     */
+    private static @Nullable String @NonNull [] @Nullable [] keywordsOf(
+            final @NonNull List<String> templates,
+            final @NonNull String placeholder,
+            final @NonNull List<String> properties) {
+        final Pattern placeholderPattern = Pattern.compile(placeholder);
+        final String[][] keywords = new String[properties.size()][];
+        for (int property = 0; property < properties.size(); property++) {
+            final Set<String> texts = new LinkedHashSet<>();
+            for (final String template : templates) {
+                String text;
+                try {
+                    text = RequiredLiteral.of(placeholderPattern.matcher(template).replaceAll(properties.get(property)), FLAGS);
+                } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+                    // Property name is not a valid replacement: the regexp fails when verifying.
+                    text = null;
+                }
+                if (text == null) {
+                    texts.clear();
+                    break;
+                }
+                texts.add(text);
+            }
+            keywords[property] = texts.isEmpty() ? null : texts.toArray(new String[0]);
+        }
+        return keywords;
+    }
+
+    /**
+     * @return Number of expanded template patterns compiled.
+     */
+    long getCompiled() {
+        return compiled.sum();
+    }
+
+    /**
+     * @return Number of properties this matcher looks for.
+     */
+    int size() {
+        return properties.size();
+    }
+
+    /**
+     * @param property Index of the property.
+     * @return Property name.
+     */
+    @NonNull String getProperty(final int property) {
+        return properties.get(property);
+    }
+
+    /**
+     * @param propertyName Property name.
+     * @return Index of the property, or -1 if this matcher does not look for it.
+     */
+    int indexOf(final @NonNull String propertyName) {
+        final Integer index = indexes.get(propertyName);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * Find all the properties, resolved or not, whose name appears in the text.
+     *
+     * @param text Text to search.
+     * @return Indexes of properties which are candidates for verification.
+     */
+    @NonNull BitSet allCandidates(final @NonNull CharSequence text) {
+        return allCandidates(text, new BitSet(properties.size()));
+    }
+
+    /**
+     * Find all the properties, resolved or not, whose name appears in the text.
+     *
+     * @param text  Text to search.
+     * @param found Set to clear and reuse for the result.
+     * @return Indexes of properties which are candidates for verification.
+     */
+    @NonNull BitSet allCandidates(final @NonNull CharSequence text, final @NonNull BitSet found) {
+        found.clear();
+        all.automaton.match(text, (keyword, end) -> {
+            for (final int property : all.propertyIds[keyword]) {
+                found.set(property);
+            }
+        });
+        for (final int property : all.unfiltered) {
+            found.set(property);
+        }
+        return found;
+    }
+
+    /**
+     * Find the unresolved properties whose name appears in the text.
+     *
+     * @param text Text to search.
+     * @return Indexes of properties which are candidates for verification.
+     */
+    @NonNull BitSet candidates(final @NonNull CharSequence text) {
+        return candidates(text, new BitSet(properties.size()));
+    }
+
+    /**
+     * Find the unresolved properties whose name appears in the text.
+     *
+     * @param text  Text to search.
+     * @param found Set to clear and reuse for the result.
+     * @return Indexes of properties which are candidates for verification.
+     */
+    @NonNull BitSet candidates(final @NonNull CharSequence text, final @NonNull BitSet found) {
+        found.clear();
+        final ActiveSet current = activeSet();
+        current.automaton.match(text, (keyword, end) -> {
+            for (final int property : current.propertyIds[keyword]) {
+                if (resolved.get(property) == 0) {
+                    found.set(property);
+                }
+            }
+        });
+        for (final int property : current.unfiltered) {
+            if (resolved.get(property) == 0) {
+                found.set(property);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Mark the property as found.
+     *
+     * @param property Index of the property.
+     * @return true if property was not resolved before.
+     */
+    boolean resolve(final int property) {
+        if (resolved.compareAndSet(property, 0, 1)) {
+            unresolved.decrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @param property Index of the property.
+     * @return true if property has been found.
+     */
+    boolean isResolved(final int property) {
+        return resolved.get(property) == 1;
+    }
+
+    /**
+     * @return true if every property has been found and there is nothing left to search.
+     */
+    boolean allResolved() {
+        return unresolved.get() == 0;
+    }
+
+    /**
+     * Rebuild the automaton when at least half of its properties have been resolved.
+     * This keeps the total cost of rebuilding proportional to the size of the first automaton.
+     */
+    private @NonNull ActiveSet activeSet() {
+        ActiveSet current = active;
+        if (unresolved.get() * 2 <= current.size && current.size > 1) {
+            synchronized (this) {
+                current = active;
+                if (unresolved.get() * 2 <= current.size && current.size > 1) {
+                    current = new ActiveSet(keywords, resolved);
+                    active = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Automaton over a subset of the properties.
+     */
+    private static final class ActiveSet {
+
+        private final @NonNull KeywordAutomaton automaton;
+
+        /** Property indexes of every keyword in the automaton. */
+        private final int @NonNull [] @NonNull [] propertyIds;
+
+        /** Property indexes of the properties which are candidates everywhere. */
+        private final int @NonNull [] unfiltered;
+
+        /** Number of properties in the set. */
+        private final int size;
+
+        ActiveSet(final @Nullable String @NonNull [] @Nullable [] keywords, final @NonNull AtomicIntegerArray resolved) {
+            final Map<String, List<Integer>> properties = new LinkedHashMap<>();
+            final List<Integer> everywhere = new ArrayList<>();
+            int count = 0;
+            for (int i = 0; i < keywords.length; i++) {
+                if (resolved.get(i) != 0) {
+                    continue;
+                }
+                count++;
+                final String[] texts = keywords[i];
+                if (texts == null) {
+                    everywhere.add(i);
+                } else {
+                    for (final String text : texts) {
+                        properties.computeIfAbsent(text, k -> new ArrayList<>(1)).add(i);
+                    }
+                }
+            }
+            this.automaton = new KeywordAutomaton(new ArrayList<>(properties.keySet()));
+            this.propertyIds = properties.values().stream()
+                    .map(ids -> ids.stream().mapToInt(Integer::intValue).toArray())
+                    .toArray(int[][]::new);
+            this.unfiltered = everywhere.stream().mapToInt(Integer::intValue).toArray();
+            this.size = count;
+        }
+    }
+
+    /**
+     * Verify that any of the templates, expanded with the property name, matches the text.
+     *
+     * @param property Index of the property.
+     * @param text     Text to search.
+     * @return true if property is used in text.
+     */
+    boolean verify(final int property, final @NonNull CharSequence text) {
+        for (int t = 0; t < templates.size(); t++) {
+            if (pattern(property, t).test(text)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param property Index of the property.
+     * @param template Index of the template.
+     * @return Test for the expanded template pattern.
+     */
+    private @NonNull Predicate<CharSequence> pattern(final int property, final int template) {
+        final int index = property * templates.size() + template;
+        Predicate<CharSequence> pattern = patterns.get(index);
+        if (pattern == null) {
+            pattern = PatternCache.compileFinder(templates.get(template), placeholder, properties.get(property));
+            patterns.set(index, pattern);
+            compiled.increment();
+        }
+        return pattern;
+    }
+}
@@ -0,0 +1,154 @@
+package com.github.mikkoi.maven.plugins.enforcer.rule.propertyusage;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Usages of properties in compact form: four ints per usage,
+ * the file id, the line number, the column and the property id.
+ * <p>
+ * File names and property names are stored once each.
+ * {@link UsageFiles.UsageLocation}s are created only when asked for.
+ * Not thread-safe.
+ */
+final class UsageTable {
+
+    private final @NonNull List<String> files = new ArrayList<>();
+
+    private final @NonNull Map<String, Integer> fileIds = new HashMap<>();
+
+    private final @NonNull List<String> properties = new ArrayList<>();
+
+    private final @NonNull Map<String, Integer> propertyIds = new HashMap<>();
+
+    private int size;
+
+    private int @NonNull [] usageFiles = new int[16];
+
+    private int @NonNull [] usageLines = new int[16];
+
+    private int @NonNull [] usageColumns = new int[16];
+
+    private int @NonNull [] usageProperties = new int[16];
+
+    /**
+     * @param filename File name.
+     * @return Id of the file, the same for the same name.
+     */
+    int fileId(final @NonNull String filename) {
+        return fileIds.computeIfAbsent(filename, name -> {
+            files.add(name);
+            return files.size() - 1;
+        });
+    }
+
+    /**
+     * @param property Property name.
+     * @return Id of the property, the same for the same name.
+     */
+    int propertyId(final @NonNull String property) {
+        return propertyIds.computeIfAbsent(property, name -> {
+            properties.add(name);
+            return properties.size() - 1;
+        });
+    }
+
+    /**
+     * @param fileId     Id of the file, from {@link #fileId(String)}.
+     * @param line       Line number.
+     * @param column     Column of the property name, starting from 1.
+     * @param propertyId Id of the property, from {@link #propertyId(String)}.
+     */
+    void add(final int fileId, final int line, final int column, final int propertyId) {
+        if (size == usageFiles.length) {
+            final int capacity = size * 2;
+            usageFiles = Arrays.copyOf(usageFiles, capacity);
+            usageLines = Arrays.copyOf(usageLines, capacity);
+            usageColumns = Arrays.copyOf(usageColumns, capacity);
+            usageProperties = Arrays.copyOf(usageProperties, capacity);
+        }
+        usageFiles[size] = fileId;
+        usageLines[size] = line;
+        usageColumns[size] = column;
+        usageProperties[size] = propertyId;
+        size++;
+    }
+
+    /**
+     * Add the usages of another table, with the ids of this table.
+     *
+     * @param other Table to add.
+     */
+    void addAll(final @NonNull UsageTable other) {
+        final int[] fileMap = new int[other.files.size()];
+        for (int f = 0; f < fileMap.length; f++) {
+            fileMap[f] = fileId(other.files.get(f));
+        }
+        final int[] propertyMap = new int[other.properties.size()];
+        for (int p = 0; p < propertyMap.length; p++) {
+            propertyMap[p] = propertyId(other.properties.get(p));
+        }
+        for (int u = 0; u < other.size; u++) {
+            add(fileMap[other.usageFiles[u]], other.usageLines[u], other.usageColumns[u], propertyMap[other.usageProperties[u]]);
+        }
+    }
+
+    /**
+     * @return Number of usages.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return Number of files, including files without usages.
+     */
+    int getFileCount() {
+        return files.size();
+    }
+
+    /**
+     * @return Number of different properties used.
+     */
+    int getPropertyCount() {
+        return properties.size();
+    }
+
+    @NonNull String getFilename(final int fileId) {
+        return files.get(fileId);
+    }
+
+    @NonNull String getProperty(final int propertyId) {
+        return properties.get(propertyId);
+    }
+
+    int getFileId(final int usage) {
+        return usageFiles[usage];
+    }
+
+    int getLine(final int usage) {
+        return usageLines[usage];
+    }
+
+    int getColumn(final int usage) {
+        return usageColumns[usage];
+    }
+
+    int getPropertyId(final int usage) {
+        return usageProperties[usage];
+    }
+
+    /**
+     * @param usage Index of the usage.
+     * @return The usage as a location.
+     */
+    UsageFiles.@NonNull UsageLocation getLocation(final int usage) {
+        return new UsageFiles.UsageLocation(properties.get(usageProperties[usage]), usageLines[usage],
+                files.get(usageFiles[usage]), usageColumns[usage]);
+    }
+}
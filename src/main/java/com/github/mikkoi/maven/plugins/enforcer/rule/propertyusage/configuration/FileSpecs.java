@@ -8,9 +8,12 @@ import org.checkerframework.checker.nullness.qual.NonNull;
 import java.io.File;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.stream.Collectors;
 
 /**
@@ -30,8 +33,9 @@ public class FileSpecs {
     /**
      * Process collection of file names.
      * If file name is a file, get its absolute path.
-     * If not, assume it is either a directory or a wildcard name, and
-     * scan it with DirectoryScanner.
+     * If not, assume it is either a directory or a wildcard name.
+     * A directory is scanned with DirectoryScanner.
+     * The wildcard names are all matched in one walk of the base directory.
      * If a file is discovered multiple times, the additional entries are discarded.
      * This could happen, for instance, if paths withs wildcards overlap.
      *
@@ -43,7 +47,27 @@ public class FileSpecs {
             final @NonNull Path basedir,
             final @NonNull EnforcerLogger log
             ) {
+        return getAbsoluteFilenames(files, Collections.emptyList(), basedir, log);
+    }
+
+    /**
+     * Process collection of file names, like {@link #getAbsoluteFilenames(Collection, Path, EnforcerLogger)},
+     * leaving out the files matching any of the exclude patterns.
+     * The excludes apply to the files found by scanning, not to the files named explicitly.
+     * A directory whose whole content is excluded, e.g. with <code>**&#47;generated/**</code>, is not scanned at all.
+     *
+     * @param files    A Collection of Strings
+     * @param excludes Exclude patterns, relative to the scanned directory.
+     * @return A Collection of Strings
+     */
+    public static @NonNull Collection<String> getAbsoluteFilenames(
+            final @NonNull Collection<String> files,
+            final @NonNull Collection<String> excludes,
+            final @NonNull Path basedir,
+            final @NonNull EnforcerLogger log
+            ) {
         Collection<String> allFilenames = new HashSet<>();
+        final List<String> wildcardSpecs = new ArrayList<>();
         if(!files.isEmpty()) {
             // We have to process away files with an absolute path because
             // DirectoryScanner can't handle them (as they may not be in basedir)
@@ -59,7 +83,7 @@ public class FileSpecs {
                     allFilenames.add(file.getAbsolutePath()); // If item is already in Set, discarded automatically.
                 } else if (file.exists() && file.isDirectory()) {
                     log.debug(logFileIterationMsg(fileSpec, "is a directory") + ".");
-                    DirectoryScanner ds = initializeDS(Paths.get(fileSpec));
+                    DirectoryScanner ds = initializeDS(Paths.get(fileSpec), excludes);
                     ds.scan();
                     allFilenames.addAll(Arrays.stream(ds.getIncludedFiles())
                             .map(includedFile -> new File(includedFile).getAbsolutePath())
@@ -68,34 +92,38 @@ public class FileSpecs {
                     log.error(logFileIterationMsg(fileSpec, "is not a file or directory. Do not know what to do") + "!");
                 } else {
                     log.debug(logFileIterationMsg(fileSpec, "does not exist. Assume wildcards") + ".");
-                    DirectoryScanner ds = initializeDS(basedir);
-                    ds.setIncludes(new String[]{fileSpec});
-                    ds.scan();
-                    Collection<String> foundFiles = Arrays.stream(ds.getIncludedFiles())
-                            .map(includedFile -> Paths.get(basedir.toString(), includedFile).toAbsolutePath().toString())
-                            .collect(Collectors.toSet());
-                    log.debug("    Found files:[");
-                    for (final String foundFile : foundFiles) {
-                        log.debug("        " + foundFile);
-                    }
-                    log.debug("    ]");
-                    allFilenames.addAll(foundFiles);
+                    wildcardSpecs.add(fileSpec);
                 }
             }
         }
+        if (!wildcardSpecs.isEmpty()) {
+            final Collection<String> foundFiles = new FileTreeScanner(wildcardSpecs, excludes, log).scan(basedir);
+            if (log.isDebugEnabled()) {
+                log.debug("    Found files:[");
+                for (final String foundFile : foundFiles) {
+                    log.debug("        " + foundFile);
+                }
+                log.debug("    ]");
+            }
+            allFilenames.addAll(foundFiles);
+        }
 //        log.debug("All discovered files: [\n" + allFilenames.stream().map(fn -> fn + "\n").sorted().collect(Collectors.toList()) + "]");
-        log.debug("All discovered files: [");
-        for (final String fn : allFilenames) {
-            log.debug("    " + fn);
+        if (log.isDebugEnabled()) {
+            log.debug("All discovered files: [");
+            for (final String fn : allFilenames) {
+                log.debug("    " + fn);
+            }
+            log.debug("]");
         }
-        log.debug("]");
         return allFilenames;
     }
 
-    private static DirectoryScanner initializeDS(final @NonNull Path path) {
+    private static DirectoryScanner initializeDS(final @NonNull Path path, final @NonNull Collection<String> excludes) {
         DirectoryScanner ds = new DirectoryScanner();
         ds.setCaseSensitive(true);
         ds.setFollowSymlinks(true);
+        // setExcludes() replaces all the excludes, so the default excludes are added after it.
+        ds.setExcludes(excludes.toArray(new String[0]));
         ds.addDefaultExcludes();
         ds.setBasedir(path.toAbsolutePath().toString());
         return ds;
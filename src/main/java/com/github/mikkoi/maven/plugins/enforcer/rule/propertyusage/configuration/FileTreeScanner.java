@@ -0,0 +1,145 @@
+package com.github.mikkoi.maven.plugins.enforcer.rule.propertyusage.configuration;
+
+import org.apache.maven.enforcer.rule.api.EnforcerLogger;
+import org.codehaus.plexus.util.AbstractScanner;
+import org.codehaus.plexus.util.MatchPatterns;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.FileSystemLoopException;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * Find the files matching any of the include patterns under a base directory, in one walk.
+ * <p>
+ * The patterns have the same syntax and meaning as in plexus DirectoryScanner,
+ * and the default excludes are always applied. Symbolic links are followed.
+ * A directory is not entered if no include pattern can match anything under it,
+ * or if an exclude pattern excludes everything under it.
+ * Like DirectoryScanner, files and directories which cannot be read are skipped.
+ */
+final class FileTreeScanner {
+
+    private static final String ALL_UNDER = File.separator + "**";
+
+    private final @NonNull MatchPatterns includes;
+
+    private final @NonNull MatchPatterns excludes;
+
+    /**
+     * Patterns which exclude a directory with everything under it.
+     */
+    private final @NonNull MatchPatterns excludedDirectories;
+
+    private final @NonNull EnforcerLogger log;
+
+    /**
+     * @param includes Include patterns, relative to the base directory.
+     * @param excludes Exclude patterns in addition to the default excludes.
+     * @param log      Logger for the files skipped.
+     */
+    FileTreeScanner(final @NonNull Collection<String> includes, final @NonNull Collection<String> excludes,
+                    final @NonNull EnforcerLogger log) {
+        this.log = log;
+        final List<String> allExcludes = new ArrayList<>();
+        Arrays.stream(AbstractScanner.DEFAULTEXCLUDES).map(FileTreeScanner::normalizePattern).forEach(allExcludes::add);
+        excludes.stream().map(FileTreeScanner::normalizePattern).forEach(allExcludes::add);
+        final List<String> directoryExcludes = new ArrayList<>();
+        for (final String exclude : allExcludes) {
+            if (exclude.endsWith(ALL_UNDER) && exclude.length() > ALL_UNDER.length()) {
+                directoryExcludes.add(exclude.substring(0, exclude.length() - ALL_UNDER.length()));
+            }
+        }
+        this.includes = MatchPatterns.from(includes.stream().map(FileTreeScanner::normalizePattern).toArray(String[]::new));
+        this.excludes = MatchPatterns.from(allExcludes);
+        this.excludedDirectories = MatchPatterns.from(directoryExcludes);
+    }
+
+    /**
+     * @param basedir Base directory.
+     * @return Absolute names of the files found.
+     * @throws IllegalStateException If the base directory does not exist, like DirectoryScanner.
+     */
+    @NonNull Collection<String> scan(final @NonNull Path basedir) {
+        final Path base = basedir.toAbsolutePath();
+        if (!Files.isDirectory(base)) {
+            throw new IllegalStateException("basedir " + base + " does not exist or is not a directory");
+        }
+        final Collection<String> found = new HashSet<>();
+        try {
+            Files.walkFileTree(base, EnumSet.of(FileVisitOption.FOLLOW_LINKS), Integer.MAX_VALUE, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult preVisitDirectory(final Path dir, final BasicFileAttributes attrs) {
+                    if (dir.equals(base)) {
+                        return FileVisitResult.CONTINUE;
+                    }
+                    final String name = base.relativize(dir).toString();
+                    if (!includes.matchesPatternStart(name, true) || excludedDirectories.matches(name, true)) {
+                        return FileVisitResult.SKIP_SUBTREE;
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(final Path file, final BasicFileAttributes attrs) {
+                    if (attrs.isRegularFile()) {
+                        final String name = base.relativize(file).toString();
+                        if (includes.matches(name, true) && !excludes.matches(name, true)) {
+                            found.add(file.toString());
+                        }
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(final Path file, final IOException exc) {
+                    if (!(exc instanceof FileSystemLoopException)) {
+                        log.debug(() -> "Skipping '" + file + "' which cannot be read: " + exc);
+                    }
+                    return Files.isDirectory(file) ? FileVisitResult.SKIP_SUBTREE : FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult postVisitDirectory(final Path dir, final @Nullable IOException exc) {
+                    if (exc != null) {
+                        log.debug(() -> "Skipping the rest of directory '" + dir + "' which cannot be read: " + exc);
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot scan directory " + base, e);
+        }
+        return found;
+    }
+
+    /**
+     * Normalize a pattern like DirectoryScanner: use the platform's separator,
+     * and match everything under a directory if the pattern ends with a separator.
+     */
+    private static @NonNull String normalizePattern(final @NonNull String pattern) {
+        String normalized = pattern.trim();
+        if (normalized.startsWith("%regex[")) {
+            return normalized;
+        }
+        normalized = normalized.replace('/', File.separatorChar).replace('\\', File.separatorChar);
+        if (normalized.endsWith(File.separator)) {
+            normalized += "**";
+        }
+        return normalized;
+    }
+}
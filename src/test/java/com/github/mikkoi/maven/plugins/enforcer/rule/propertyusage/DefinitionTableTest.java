@@ -0,0 +1,49 @@
+package com.github.mikkoi.maven.plugins.enforcer.rule.propertyusage;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class DefinitionTableTest {
+
+    @Test
+    public void storesEveryDefinitionOfEveryKey() {
+        final DefinitionTable table = new DefinitionTable(definition -> "value of " + definition.getKey());
+        final int first = table.fileId("first.properties");
+        final int second = table.fileId("second.properties");
+        assertEquals("Same id for the same file.", first, table.fileId("first.properties"));
+        final Map<String, Integer> expectedCounts = new HashMap<>();
+        for (int i = 0; i < 5000; i++) {
+            final String key = "key." + i;
+            table.add(key, first, i + 1);
+            expectedCounts.put(key, 1);
+            if (i % 7 == 0) {
+                table.add(key, second, i + 1);
+                expectedCounts.put(key, 2);
+            }
+        }
+        assertEquals("Every key once.", expectedCounts.size(), table.size());
+        assertEquals("Every definition.", 5000 + 715, table.getDefinitionCount());
+        final Map<String, Integer> counts = new HashMap<>();
+        table.forEach((key, definitions) -> counts.put(key, definitions.size()));
+        assertEquals("Definitions per key.", expectedCounts, counts);
+        assertTrue("Defined key.", table.containsKey("key.4999"));
+        assertFalse("Undefined key.", table.containsKey("key.5000"));
+        assertNull("No definitions for undefined key.", table.get("key.5000"));
+
+        final Set<PropertyDefinition> definitions = table.get("key.14");
+        assertEquals("Defined twice.", 2, definitions.size());
+        for (final PropertyDefinition definition : definitions) {
+            assertEquals("Key.", "key.14", definition.getKey());
+            assertEquals("Line.", 15, definition.getLineNumber());
+            assertEquals("Value is read when asked for.", "value of key.14", definition.getValue());
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.github.mikkoi.maven.plugins.enforcer.rule.propertyusage;
+
+import org.junit.Assume;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class GitChangedFilesTest {
+
+    @Rule
+    public TemporaryFolder testDir = new TemporaryFolder();
+
+    private static void git(final Path dir, final String... args) throws Exception {
+        final String[] command = new String[args.length + 1];
+        command[0] = "git";
+        System.arraycopy(args, 0, command, 1, args.length);
+        final Process process = new ProcessBuilder(command).directory(dir.toFile()).redirectErrorStream(true).start();
+        while (process.getInputStream().read() >= 0) {
+            // Discard output
+        }
+        assertEquals("Command " + Arrays.toString(command) + " succeeds.", 0, process.waitFor());
+    }
+
+    private static void write(final Path file, final String content) throws IOException {
+        Files.createDirectories(file.getParent());
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void listsFilesChangedSinceBaseRef() throws Exception {
+        final Path repo = testDir.getRoot().toPath();
+        try {
+            git(repo, "init", "-q");
+        } catch (IOException e) {
+            Assume.assumeNoException("git is not available", e);
+        }
+        git(repo, "config", "user.email", "test@example.com");
+        git(repo, "config", "user.name", "Test");
+        write(repo.resolve(".gitignore"), "ignored/\n");
+        write(repo.resolve("module/src/Unchanged.java"), "\"my.property\"");
+        write(repo.resolve("module/src/Committed.java"), "\"my.property\"");
+        write(repo.resolve("module/src/Modified.java"), "\"my.property\"");
+        git(repo, "add", ".");
+        git(repo, "commit", "-q", "-m", "base");
+        git(repo, "tag", "base");
+
+        write(repo.resolve("module/src/Committed.java"), "\"other.property\"");
+        git(repo, "commit", "-q", "-a", "-m", "change");
+        write(repo.resolve("module/src/Modified.java"), "\"other.property\"");
+        write(repo.resolve("other/src/Untracked.java"), "\"other.property\"");
+        write(repo.resolve("ignored/Ignored.java"), "\"other.property\"");
+
+        final Path module = repo.resolve("module");
+        assertEquals("Committed, modified and untracked files are changed.",
+                new HashSet<>(Arrays.asList(
+                        module.resolve("src/Committed.java").toString(),
+                        module.resolve("src/Modified.java").toString(),
+                        repo.resolve("other/src/Untracked.java").toString())),
+                GitChangedFiles.since(module, "base").getFiles());
+        assertEquals("Files of the base revision are tracked, untracked and ignored files are not.",
+                new HashSet<>(Arrays.asList(
+                        repo.resolve(".gitignore").toString(),
+                        module.resolve("src/Unchanged.java").toString(),
+                        module.resolve("src/Committed.java").toString(),
+                        module.resolve("src/Modified.java").toString())),
+                GitChangedFiles.since(module, "base").getTrackedFiles());
+        assertEquals("Base revision is the commit of the tag.",
+                GitChangedFiles.since(module, "HEAD~1").getRevision(), GitChangedFiles.since(module, "base").getRevision());
+    }
+
+    @Test
+    public void ignoredFileIsComparedByFingerprint() throws Exception {
+        final Path repo = testDir.getRoot().toPath().resolve("repo");
+        Files.createDirectories(repo);
+        try {
+            git(repo, "init", "-q");
+        } catch (IOException e) {
+            Assume.assumeNoException("git is not available", e);
+        }
+        git(repo, "config", "user.email", "test@example.com");
+        git(repo, "config", "user.name", "Test");
+        write(repo.resolve(".gitignore"), "target/\n");
+        write(repo.resolve("src/App.java"), "\"my.property\"");
+        git(repo, "add", ".");
+        git(repo, "commit", "-q", "-m", "base");
+        final Path generated = repo.resolve("target/generated/Generated.java");
+        write(generated, "\"my.property\"");
+
+        final Path cacheFile = testDir.getRoot().toPath().resolve("defined-usages.cache");
+        final ScanCache<Set<String>> cache = newCache(cacheFile);
+        final GitChangedFiles base = GitChangedFiles.since(repo, "HEAD");
+        cache.setChangedFiles(base.getFiles(), base.getTrackedFiles(), base.getRevision());
+        cache.put(generated.toString(), Collections.singleton("my.property"));
+        cache.save();
+
+        // The build generates the file again, with other content.
+        write(generated, "\"other.property\"");
+        Files.setLastModifiedTime(generated, FileTime.fromMillis(Files.getLastModifiedTime(generated).toMillis() + 10_000));
+        final ScanCache<Set<String>> next = newCache(cacheFile);
+        final GitChangedFiles again = GitChangedFiles.since(repo, "HEAD");
+        next.setChangedFiles(again.getFiles(), again.getTrackedFiles(), again.getRevision());
+        assertNull("Regenerated ignored file is not served from the cache.", next.get(generated.toString()));
+    }
+
+    private ScanCache<Set<String>> newCache(final Path cacheFile) {
+        return new ScanCache<>(cacheFile, "key", UsageFiles.FOUND_PROPERTIES_CODEC, false,
+                TestEnforcerLoggerFactory.createTestEnforcerLogger()).load();
+    }
+
+    @Test(expected = IOException.class)
+    public void unknownBaseRefIsAnError() throws Exception {
+        final Path repo = testDir.getRoot().toPath();
+        try {
+            git(repo, "init", "-q");
+        } catch (IOException e) {
+            Assume.assumeNoException("git is not available", e);
+        }
+        GitChangedFiles.since(repo, "no-such-ref");
+    }
+}
@@ -0,0 +1,41 @@
+package com.github.mikkoi.maven.plugins.enforcer.rule.propertyusage;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class KeywordAutomatonTest {
+
+    private static List<String> hits(final KeywordAutomaton automaton, final String text) {
+        final List<String> hits = new ArrayList<>();
+        automaton.match(text, (keyword, end) -> hits.add(keyword + "@" + end));
+        return hits;
+    }
+
+    @Test
+    public void findsAllKeywordsInOnePass() {
+        final KeywordAutomaton automaton = new KeywordAutomaton(Arrays.asList("my.prop", "other.prop", "prop"));
+        assertEquals("Keywords found as expected.",
+                Arrays.asList("0@8", "2@8", "1@21", "2@21"),
+                hits(automaton, "\"my.prop\" \"other.prop\""));
+    }
+
+    @Test
+    public void findsOverlappingKeywords() {
+        final KeywordAutomaton automaton = new KeywordAutomaton(Arrays.asList("he", "she", "hers", "his"));
+        assertEquals("Overlapping keywords found as expected.",
+                Arrays.asList("1@4", "0@4", "2@6"),
+                hits(automaton, "ushers"));
+    }
+
+    @Test
+    public void findsNothingWithoutKeywords() {
+        final KeywordAutomaton automaton = new KeywordAutomaton(Collections.singletonList(""));
+        assertEquals("No keywords found.", Collections.emptyList(), hits(automaton, "any text"));
+    }
+}
@@ -0,0 +1,53 @@
+package com.github.mikkoi.maven.plugins.enforcer.rule.propertyusage;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class LineReaderTest {
+
+    private static List<String> readLines(final String text, final int bufferSize) throws IOException {
+        final List<String> lines = new ArrayList<>();
+        try (LineReader reader = new LineReader(new StringReader(text), bufferSize)) {
+            for (CharSequence line = reader.readLine(); line != null; line = reader.readLine()) {
+                lines.add(reader.getLineNumber() + ":" + line);
+            }
+        }
+        return lines;
+    }
+
+    @Test
+    public void readsLinesWithAllTerminators() throws Exception {
+        final List<String> expected = Arrays.asList("1:first", "2:second", "3:", "4:third", "5:last");
+        for (int bufferSize = 1; bufferSize <= 32; bufferSize++) {
+            assertEquals("Lines as expected with buffer size " + bufferSize + ".",
+                    expected, readLines("first\nsecond\r\n\rthird\r\nlast", bufferSize));
+        }
+    }
+
+    @Test
+    public void readsLinesLikeFilesReadAllLines() throws Exception {
+        assertEquals("Empty input has no lines.", Collections.emptyList(), readLines("", 4));
+        assertEquals("Trailing terminator does not start a line.", Collections.singletonList("1:one"), readLines("one\r\n", 4));
+        assertEquals("Empty lines are kept.", Arrays.asList("1:", "2:"), readLines("\n\n", 4));
+    }
+
+    @Test
+    public void lineIsCharSequence() throws Exception {
+        try (LineReader reader = new LineReader(new StringReader("key=value\nother"), 4)) {
+            final CharSequence line = reader.readLine();
+            assertEquals("Length as expected.", 9, line.length());
+            assertEquals("Char as expected.", '=', line.charAt(3));
+            final String value = line.subSequence(4, 9).toString();
+            reader.readLine();
+            assertEquals("Subsequence stays valid after the next line.", "value", value);
+        }
+    }
+}
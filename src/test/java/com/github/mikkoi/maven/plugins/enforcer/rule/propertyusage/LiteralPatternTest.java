@@ -0,0 +1,51 @@
+package com.github.mikkoi.maven.plugins.enforcer.rule.propertyusage;
+
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class LiteralPatternTest {
+
+    private static final int FLAGS = Pattern.COMMENTS | Pattern.UNICODE_CHARACTER_CLASS;
+
+    @Test
+    public void acceptsOnlyLiterals() {
+        assertNotNull("Default template is a literal.", LiteralPattern.compile("\"my.property\"", FLAGS));
+        assertNotNull("Escaped metacharacters are literals.", LiteralPattern.compile("getProperty\\(\"a-b\"\\)", FLAGS));
+        assertNull("Quantifier is not a literal.", LiteralPattern.compile("a+", FLAGS));
+        assertNull("Class is not a literal.", LiteralPattern.compile("[a-z]", FLAGS));
+        assertNull("Escaped letter is not a literal.", LiteralPattern.compile("\\d", FLAGS));
+        assertNull("Comment is not a literal.", LiteralPattern.compile("a # comment", FLAGS));
+        assertNull("Other flags are not supported.", LiteralPattern.compile("a", Pattern.CASE_INSENSITIVE));
+    }
+
+    @Test
+    public void findsLikeRegexp() {
+        final String[] regexps = {
+                "\"my.prop\"", "my . prop", "a.b", "ab", ".", "", "\\$\\{a.b\\}", "x..y", "\u00e4.b", "\u4e2d\u6587"
+        };
+        final String alphabet = "abxy.\"${}\u00e4\u4e2d\u6587 \t\u2028\u0085\ud83d\ude00myprop";
+        final Random random = new Random(7);
+        for (final String regexp : regexps) {
+            final LiteralPattern literal = LiteralPattern.compile(regexp, FLAGS);
+            assertNotNull("Literal: " + regexp, literal);
+            final Pattern pattern = Pattern.compile(regexp, FLAGS);
+            for (int i = 0; i < 2000; i++) {
+                final StringBuilder text = new StringBuilder();
+                final int length = random.nextInt(12);
+                for (int j = 0; j < length; j++) {
+                    text.append(alphabet.charAt(random.nextInt(alphabet.length())));
+                }
+                assertEquals("Regexp '" + regexp + "' in '" + text + "'.",
+                        pattern.matcher(text).find(), literal.find(text));
+            }
+            assertEquals("Regexp '" + regexp + "' in the plain text.",
+                    pattern.matcher("\"my.prop\" a-b ab ${a.b} x12y").find(), literal.find("\"my.prop\" a-b ab ${a.b} x12y"));
+        }
+    }
+}
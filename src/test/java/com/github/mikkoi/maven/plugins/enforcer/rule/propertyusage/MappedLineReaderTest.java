@@ -0,0 +1,56 @@
+package com.github.mikkoi.maven.plugins.enforcer.rule.propertyusage;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class MappedLineReaderTest {
+
+    private static final String TEXT = "plain.ascii=value\r\n\u00e4\u00e4kk\u00f6set.prop=\"v\u00e4lily\u00f6nti\"\n\rlast \u20ac line";
+
+    private static List<String> readLines(final LineSource lines) throws IOException {
+        final List<String> result = new ArrayList<>();
+        try (LineSource source = lines) {
+            for (CharSequence line = source.readLine(); line != null; line = source.readLine()) {
+                result.add(source.getLineNumber() + ":" + line);
+            }
+        }
+        return result;
+    }
+
+    private static List<String> readMapped(final String text, final Charset charset) throws IOException {
+        return readLines(MappedLineReader.wrap(ByteBuffer.wrap(text.getBytes(charset)), charset));
+    }
+
+    @Test
+    public void readsSameLinesAsLineReader() throws Exception {
+        assertEquals("UTF-8 lines as with LineReader.",
+                readLines(new LineReader(new StringReader(TEXT), 16)),
+                readMapped(TEXT, StandardCharsets.UTF_8));
+        final String latin1 = TEXT.replace('\u20ac', 'E');
+        assertEquals("ISO-8859-1 lines as with LineReader.",
+                readLines(new LineReader(new StringReader(latin1), 16)),
+                readMapped(latin1, StandardCharsets.ISO_8859_1));
+    }
+
+    @Test
+    public void malformedInputIsError() throws Exception {
+        final ByteBuffer bytes = ByteBuffer.wrap(new byte[]{'o', 'k', '\n', (byte) 0xc3, '(', '\n'});
+        try {
+            readLines(MappedLineReader.wrap(bytes, StandardCharsets.UTF_8));
+            fail("Malformed UTF-8 is not accepted.");
+        } catch (CharacterCodingException e) {
+            // Expected, as with Files.readAllLines().
+        }
+    }
+}
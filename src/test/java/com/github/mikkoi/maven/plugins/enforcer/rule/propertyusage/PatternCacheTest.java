@@ -0,0 +1,29 @@
+package com.github.mikkoi.maven.plugins.enforcer.rule.propertyusage;
+
+import org.junit.Test;
+
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class PatternCacheTest {
+
+    @Test
+    public void expandsLikeReplaceAll() {
+        final Pattern pattern = new PatternCache().expand("getProperty\\(\"REPLACE_THIS\"\\)", "REPLACE_THIS", "my.prop");
+        assertEquals("Placeholder replaced.", "getProperty\\(\"my.prop\"\\)", pattern.pattern());
+        assertTrue("Flags as before.", (pattern.flags() & Pattern.COMMENTS) != 0);
+    }
+
+    @Test
+    public void compilesEachPatternOnce() {
+        final PatternCache cache = new PatternCache();
+        final Pattern first = cache.expand("\\$\\{REPLACE_THIS\\}", "REPLACE_THIS", "a.b");
+        assertSame("Same pattern reused.", first, cache.expand("\\$\\{REPLACE_THIS\\}", "REPLACE_THIS", "a.b"));
+        assertNotSame("Other replacement, other pattern.", first, cache.expand("\\$\\{REPLACE_THIS\\}", "REPLACE_THIS", "a.c"));
+        assertEquals("Compiled twice.", 2, cache.getCompiled());
+    }
+}
@@ -0,0 +1,69 @@
+package com.github.mikkoi.maven.plugins.enforcer.rule.propertyusage;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.junit.Assert.assertEquals;
+
+public class PropertiesParserTest {
+
+    private static final String TEXT = ""
+            + "# comment \\\n"
+            + "   ! indented comment\n"
+            + "\n"
+            + "simple=value\n"
+            + "  spaced.key   =   spaced value  \n"
+            + "colon.key:colon value\n"
+            + "whitespace.key whitespace value\n"
+            + "multi.line = first \\\n"
+            + "     second \\\n"
+            + "\tthird\n"
+            + "escaped\\ key\\:with\\=separators = v\\u00e4lue\\twith\\\\escapes\n"
+            + "not.continued = ends with backslash\\\\\n"
+            + "empty.value\n"
+            + "continued.\\\n"
+            + "   key = value\n"
+            + "separator.after.continuation \\\n"
+            + "  = continued value\n"
+            + "last.line=no line end";
+
+    private static List<String> parse(final String text) throws IOException {
+        final List<String> definitions = new ArrayList<>();
+        PropertiesParser.parse(new LineReader(new StringReader(text), 16), "test.properties",
+                (key, value, lineNumber) -> definitions.add(lineNumber + ":" + key + "=" + value));
+        return definitions;
+    }
+
+    @Test
+    public void parsesLikeJavaUtilProperties() throws Exception {
+        final Properties properties = new Properties();
+        properties.load(new StringReader(TEXT));
+        final Map<String, String> expected = new HashMap<>();
+        properties.stringPropertyNames().forEach(name -> expected.put(name, properties.getProperty(name)));
+
+        final Map<String, String> parsed = new HashMap<>();
+        PropertiesParser.parse(new LineReader(new StringReader(TEXT), 16), "test.properties",
+                (key, value, lineNumber) -> parsed.put(key, value));
+        assertEquals("Keys and values as with java.util.Properties.", expected, parsed);
+    }
+
+    @Test
+    public void reportsEveryDefinitionWithLineNumber() throws Exception {
+        assertEquals("Definitions as expected.",
+                Arrays.asList("1:a=first", "2:b=multi line", "4:a=second"),
+                parse("a=first\nb=multi \\\n  line\na=second"));
+    }
+
+    @Test(expected = IOException.class)
+    public void malformedUnicodeEscapeIsError() throws Exception {
+        parse("key=\\u00zz");
+    }
+}
@@ -5,11 +5,15 @@ import org.junit.Test;
 
 import java.nio.charset.StandardCharsets;
 import java.nio.file.NoSuchFileException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import static org.junit.Assert.assertEquals;
 
@@ -159,4 +163,59 @@ public class PropertyFilesTest {
         assertEquals("Read properties are as expected.", expected, properties);
     }
 
+
+    @Test
+    public void definitionTableHasSameDefinitions() throws Exception {
+        final Collection<String> filenames = Arrays.asList(
+                "src/test/resources/app1.properties",
+                "src/test/resources/app1-double-def.properties"
+        );
+        final PropertyFiles propertyFiles = new PropertyFiles(enforcerLogger, StandardCharsets.UTF_8);
+        final Map<String, Set<PropertyDefinition>> expected = propertyFiles.readPropertiesFromFilesGetDefinitions(filenames);
+        final Map<String, Set<PropertyDefinition>> table = propertyFiles.readPropertiesFromFilesGetDefinitionTable(filenames);
+        assertEquals("Same properties.", expected.keySet(), table.keySet());
+        expected.forEach((key, definitions) -> assertEquals("Same definitions of " + key + ".",
+                describe(definitions), describe(table.get(key))));
+    }
+
+    @Test
+    public void valuesOfCompactDefinitionsAreRead() throws Exception {
+        final Collection<String> filenames = Arrays.asList(
+                "src/test/resources/app1.properties",
+                "src/test/resources/app1-double-def.properties"
+        );
+        final PropertyFiles propertyFiles = new PropertyFiles(enforcerLogger, StandardCharsets.UTF_8);
+        final Set<PropertyDefinition> expected = new HashSet<>();
+        propertyFiles.readPropertiesFromFilesGetDefinitions(filenames).values().forEach(expected::addAll);
+        final List<PropertyDefinition> compact = new ArrayList<>();
+        propertyFiles.readPropertiesFromFilesGetDefinitionTable(filenames).values().forEach(compact::addAll);
+        assertEquals("Same values.", describe(expected), describe(new HashSet<>(propertyFiles.withValues(compact))));
+
+        final PropertyDefinition gone = new PropertyDefinition("gone", "src/test/resources/not-exists.properties", 1,
+                definition -> "never read");
+        assertEquals("Value which cannot be read is left out.", Collections.emptyList(),
+                propertyFiles.withValues(Collections.singletonList(gone)));
+    }
+
+    @Test
+    public void readAheadGivesSameDefinitions() throws Exception {
+        final Collection<String> filenames = Arrays.asList(
+                "src/test/resources/app1.properties",
+                "src/test/resources/app1-double-def.properties",
+                "src/test/resources/app2.properties"
+        );
+        final PropertyFiles propertyFiles = new PropertyFiles(enforcerLogger, StandardCharsets.UTF_8);
+        final Map<String, Set<PropertyDefinition>> expected = propertyFiles.readPropertiesFromFilesGetDefinitions(filenames);
+        propertyFiles.setReadAhead(new FileReadAhead(enforcerLogger, 2, 2, true));
+        final Map<String, Set<PropertyDefinition>> readAhead = propertyFiles.readPropertiesFromFilesGetDefinitions(filenames);
+        assertEquals("Same properties.", expected.keySet(), readAhead.keySet());
+        expected.forEach((key, definitions) -> assertEquals("Same definitions of " + key + ".",
+                describe(definitions), describe(readAhead.get(key))));
+    }
+
+    private static Set<String> describe(final Set<PropertyDefinition> definitions) {
+        final Set<String> described = new HashSet<>();
+        definitions.forEach(def -> described.add(def.getFilename() + ":" + def.getLineNumber() + ":" + def.getValue()));
+        return described;
+    }
 }
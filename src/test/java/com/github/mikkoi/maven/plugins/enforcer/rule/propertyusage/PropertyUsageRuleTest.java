@@ -27,6 +27,7 @@ import java.util.*;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 /**
@@ -434,4 +435,44 @@ public final class PropertyUsageRuleTest {
         assertEquals("Default templates are correct.", Collections.singleton("\"REPLACE_THIS\""), rule.getTemplates());
         assertEquals("Default usages are correct.", Collections.singleton("src/main/java/**/*.java"), rule.getUsages());
     }
+
+    @Test
+    public void testCacheIdChangesWithInputs() throws Exception {
+        final Path propertiesFile = testDir.resolve("cache-id.properties");
+        Files.write(propertiesFile, "cache.id.property=value".getBytes(StandardCharsets.UTF_8));
+        rule.setDefinitions(Collections.singleton(propertiesFile.toAbsolutePath().toString()));
+        rule.setUsages(Collections.singleton(FileSpecs.absoluteCwdAndFile("src/test/java/com/github/mikkoi/maven/plugins/enforcer/rule/propertyusage/App1.java")));
+        setupProject();
+
+        final String cacheId = rule.getCacheId();
+        Assertions.assertNotNull(cacheId, "Cache id is computed.");
+        Assertions.assertEquals(cacheId, rule.getCacheId(), "Same inputs give the same cache id.");
+
+        Files.write(propertiesFile, "cache.id.property=changed value".getBytes(StandardCharsets.UTF_8));
+        final String changedFileCacheId = rule.getCacheId();
+        Assertions.assertNotEquals(cacheId, changedFileCacheId, "Changed file gives a different cache id.");
+
+        rule.setTemplates(Collections.singleton("properties\\.getProperty\\(\"REPLACE_THIS\"\\)"));
+        Assertions.assertNotEquals(changedFileCacheId, rule.getCacheId(), "Changed configuration gives a different cache id.");
+    }
+
+    @Test
+    public void testAggregateChecksAllModules() throws Exception {
+        final Path moduleA = testDir.resolve("aggregate/module-a");
+        final Path moduleB = testDir.resolve("aggregate/module-b");
+        Files.createDirectories(moduleA.resolve("src/main/resources"));
+        Files.createDirectories(moduleB.resolve("src/main/java"));
+        Files.write(moduleA.resolve("src/main/resources/a.properties"), "shared.property=value".getBytes(StandardCharsets.UTF_8));
+        Files.write(moduleB.resolve("src/main/java/B.java"), "class B { String s = \"shared.property\"; }".getBytes(StandardCharsets.UTF_8));
+        final MavenProject first = mock(MavenProject.class);
+        when(first.getBasedir()).thenReturn(moduleA.toFile());
+        when(project.getBasedir()).thenReturn(moduleB.toFile());
+        when(session.getProjects()).thenReturn(Arrays.asList(first, project));
+        rule.setAggregate(true);
+        rule.setUsedPropertiesAreDefined(true);
+
+        rule.execute();
+        assertTrue(rule.getPropertiesNotUsed().isEmpty(), "Property defined in one module is used in another.");
+        assertTrue(rule.getPropertiesNotDefined().isEmpty(), "Property used in one module is defined in another.");
+    }
 }
@@ -0,0 +1,63 @@
+package com.github.mikkoi.maven.plugins.enforcer.rule.propertyusage;
+
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class RequiredLiteralTest {
+
+    private static final int FLAGS = Pattern.COMMENTS | Pattern.UNICODE_CHARACTER_CLASS;
+
+    @Test
+    public void findsLongestRequiredText() {
+        assertEquals("properties.getProperty(\"", RequiredLiteral.of("properties\\.getProperty\\(\"([\\w.-]+)\"\\)", FLAGS));
+        assertEquals("${", RequiredLiteral.of("\\$\\{([a-z.-]+)\\}", FLAGS));
+        assertEquals("Spaces are ignored.", "getString(", RequiredLiteral.of("get String \\( (\\w+) \\)", FLAGS));
+        assertEquals("Optional character ends the text.", "abc", RequiredLiteral.of("abcd?e", FLAGS));
+        assertEquals("Repeated character is required once.", "abcd", RequiredLiteral.of("abcd+e", FLAGS));
+        assertEquals("Groups end the text.", "xyz", RequiredLiteral.of("a(bc|de)*xyz[0-9]{2}", FLAGS));
+        assertEquals("Group contents are required.", "name.x", RequiredLiteral.of("get\\((name\\.x)\\)", FLAGS));
+        assertEquals("Repeated group is required once.", "abcd", RequiredLiteral.of("x(?:ab(abcd)+)+y", FLAGS));
+        assertEquals("Optional group is not required.", "xy", RequiredLiteral.of("xy(abcd)?z", FLAGS));
+        assertEquals("Group with alternation is not required.", "xy", RequiredLiteral.of("xy(abcd|efgh)z", FLAGS));
+        assertNull("Inline flags in a group.", RequiredLiteral.of("a((?i)abc)", FLAGS));
+        assertNull("Top level alternation.", RequiredLiteral.of("abc|def", FLAGS));
+        assertNull("Inline flags.", RequiredLiteral.of("(?i)abc", FLAGS));
+        assertNull("Case insensitive.", RequiredLiteral.of("abc", Pattern.CASE_INSENSITIVE));
+        assertNull("Comment.", RequiredLiteral.of("abc # comment", FLAGS));
+        assertNull("Nothing required.", RequiredLiteral.of("\\w+.*", FLAGS));
+    }
+
+    @Test
+    public void everyMatchContainsRequiredText() {
+        final String[] regexps = {
+                "ab+c?d", "a{2}bc", "(ab)?c\\.d", "[ab]c*d+", "x(?:a|b)+y", "\\$\\{(a.b)\\}", "a\\sb c", "\"([a.]+)\"",
+                "a*?b+?c", "[]a]bc", "a\\p{L}bc", "\\bab\\b", "ab{1,2}c",
+                "x(ab)+y", "(a(bc)d)?b", "a(b(cd)?)c", "\\$\\{(a.(bc)+|d)\\}"
+        };
+        final String alphabet = "abcdxy.\"${} ]";
+        final Random random = new Random(11);
+        for (final String regexp : regexps) {
+            final Pattern pattern = Pattern.compile(regexp, FLAGS);
+            final String required = RequiredLiteral.of(pattern);
+            for (int i = 0; i < 5000; i++) {
+                final StringBuilder text = new StringBuilder();
+                final int length = random.nextInt(10);
+                for (int j = 0; j < length; j++) {
+                    text.append(alphabet.charAt(random.nextInt(alphabet.length())));
+                }
+                if (required != null && pattern.matcher(text).find()) {
+                    assertTrue("Regexp '" + regexp + "' matches '" + text + "' without '" + required + "'.",
+                            text.indexOf(required) >= 0);
+                    assertTrue("Literal search finds '" + required + "' in '" + text + "'.",
+                            LiteralPattern.of(required).find(text));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.github.mikkoi.maven.plugins.enforcer.rule.propertyusage;
+
+import org.apache.maven.enforcer.rule.api.EnforcerLogger;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class ScanCacheTest {
+
+    @Rule
+    public TemporaryFolder testDir = new TemporaryFolder();
+
+    public EnforcerLogger enforcerLogger = TestEnforcerLoggerFactory.createTestEnforcerLogger();
+
+    private final Set<String> found = new HashSet<>(Arrays.asList("my.property.value", "other.prop.val"));
+
+    private ScanCache<Set<String>> newCache(final Path cacheFile, final String configKey, final boolean contentHash) {
+        return new ScanCache<>(cacheFile, configKey, UsageFiles.FOUND_PROPERTIES_CODEC, contentHash, enforcerLogger).load();
+    }
+
+    @Test
+    public void unchangedFileIsServedFromCache() throws Exception {
+        final File usageFile = testDir.newFile();
+        Files.write(usageFile.toPath(), "\"my.property.value\" \"other.prop.val\"".getBytes(StandardCharsets.UTF_8));
+        final Path cacheFile = testDir.getRoot().toPath().resolve("cache/defined-usages.cache");
+        final ScanCache<Set<String>> cache = newCache(cacheFile, "key", false);
+        assertNull("Nothing cached yet.", cache.get(usageFile.getAbsolutePath()));
+        cache.put(usageFile.getAbsolutePath(), found);
+        cache.save();
+
+        assertEquals("Cached result is served.", found, newCache(cacheFile, "key", false).get(usageFile.getAbsolutePath()));
+        assertNull("Cache with other configuration is not used.", newCache(cacheFile, "other key", false).get(usageFile.getAbsolutePath()));
+    }
+
+    @Test
+    public void changedFileIsNotServedFromCache() throws Exception {
+        final File usageFile = testDir.newFile();
+        Files.write(usageFile.toPath(), "\"my.property.value\"".getBytes(StandardCharsets.UTF_8));
+        final Path cacheFile = testDir.getRoot().toPath().resolve("defined-usages.cache");
+        final ScanCache<Set<String>> cache = newCache(cacheFile, "key", true);
+        cache.put(usageFile.getAbsolutePath(), found);
+        cache.save();
+
+        Files.write(usageFile.toPath(), "\"my.property.valuE\"".getBytes(StandardCharsets.UTF_8));
+        assertNull("Changed file is not served.", newCache(cacheFile, "key", true).get(usageFile.getAbsolutePath()));
+    }
+
+    @Test
+    public void onlyChangedFilesAreReadWhenTheyAreKnown() throws Exception {
+        final File unchangedFile = testDir.newFile();
+        final File changedFile = testDir.newFile();
+        Files.write(unchangedFile.toPath(), "\"my.property.value\"".getBytes(StandardCharsets.UTF_8));
+        Files.write(changedFile.toPath(), "\"my.property.value\"".getBytes(StandardCharsets.UTF_8));
+        final Set<String> tracked = new HashSet<>(Arrays.asList(unchangedFile.getAbsolutePath(), changedFile.getAbsolutePath()));
+        final Path cacheFile = testDir.getRoot().toPath().resolve("defined-usages.cache");
+        // Build of the base revision.
+        final ScanCache<Set<String>> cache = newCache(cacheFile, "key", false);
+        cache.setChangedFiles(Collections.emptySet(), tracked, "base");
+        cache.put(unchangedFile.getAbsolutePath(), found);
+        cache.put(changedFile.getAbsolutePath(), found);
+        cache.save();
+
+        // A fresh checkout gives the files new modification times.
+        Files.write(unchangedFile.toPath(), "\"my.property.value\"".getBytes(StandardCharsets.UTF_8));
+        unchangedFile.setLastModified(unchangedFile.lastModified() + 10_000);
+        final ScanCache<Set<String>> baseline = newCache(cacheFile, "key", false);
+        baseline.setChangedFiles(Collections.singleton(changedFile.getAbsolutePath()), tracked, "base");
+        assertEquals("Unchanged file is served.", found, baseline.get(unchangedFile.getAbsolutePath()));
+        assertNull("Changed file is not served.", baseline.get(changedFile.getAbsolutePath()));
+
+        final ScanCache<Set<String>> otherBase = newCache(cacheFile, "key", false);
+        otherBase.setChangedFiles(Collections.singleton(changedFile.getAbsolutePath()), tracked, "other base");
+        assertNull("With another base revision fingerprints are compared.", otherBase.get(unchangedFile.getAbsolutePath()));
+    }
+
+    @Test
+    public void entryOfChangedFileIsNotBaseline() throws Exception {
+        final File usageFile = testDir.newFile();
+        Files.write(usageFile.toPath(), "\"my.property.value\"".getBytes(StandardCharsets.UTF_8));
+        final Path cacheFile = testDir.getRoot().toPath().resolve("defined-usages.cache");
+        // Build of a change to the file.
+        final ScanCache<Set<String>> cache = newCache(cacheFile, "key", false);
+        final Set<String> tracked = Collections.singleton(usageFile.getAbsolutePath());
+        cache.setChangedFiles(Collections.singleton(usageFile.getAbsolutePath()), tracked, "base");
+        cache.put(usageFile.getAbsolutePath(), found);
+        cache.save();
+
+        // The change is reverted.
+        Files.write(usageFile.toPath(), "\"other.prop.val\"".getBytes(StandardCharsets.UTF_8));
+        usageFile.setLastModified(usageFile.lastModified() + 10_000);
+        final ScanCache<Set<String>> reverted = newCache(cacheFile, "key", false);
+        reverted.setChangedFiles(Collections.emptySet(), tracked, "base");
+        assertNull("Result of the changed file is compared by fingerprint.", reverted.get(usageFile.getAbsolutePath()));
+    }
+
+    @Test
+    public void untrackedFileIsComparedByFingerprint() throws Exception {
+        final File generatedFile = testDir.newFile();
+        Files.write(generatedFile.toPath(), "\"my.property.value\"".getBytes(StandardCharsets.UTF_8));
+        final Path cacheFile = testDir.getRoot().toPath().resolve("defined-usages.cache");
+        // Build of the base revision. The file is ignored by git, so it is neither changed nor tracked.
+        final ScanCache<Set<String>> cache = newCache(cacheFile, "key", false);
+        cache.setChangedFiles(Collections.emptySet(), Collections.emptySet(), "base");
+        cache.put(generatedFile.getAbsolutePath(), found);
+        cache.save();
+
+        // The file is generated again with other content.
+        Files.write(generatedFile.toPath(), "\"other.prop.val\"".getBytes(StandardCharsets.UTF_8));
+        generatedFile.setLastModified(generatedFile.lastModified() + 10_000);
+        final ScanCache<Set<String>> next = newCache(cacheFile, "key", false);
+        next.setChangedFiles(Collections.emptySet(), Collections.emptySet(), "base");
+        assertNull("Regenerated file is not served.", next.get(generatedFile.getAbsolutePath()));
+    }
+
+    @Test
+    public void corruptCacheIsIgnored() throws Exception {
+        final File usageFile = testDir.newFile();
+        Files.write(usageFile.toPath(), "\"my.property.value\"".getBytes(StandardCharsets.UTF_8));
+        final Path cacheFile = testDir.getRoot().toPath().resolve("defined-usages.cache");
+        final ScanCache<Set<String>> cache = newCache(cacheFile, "key", false);
+        cache.put(usageFile.getAbsolutePath(), Collections.singleton("my.property.value"));
+        cache.save();
+        final byte[] saved = Files.readAllBytes(cacheFile);
+        // The file ends with the found properties: their count, and the length and bytes of the only name.
+        final int countOffset = saved.length - "my.property.value".length() - 8;
+        for (final int offset : new int[]{countOffset, countOffset + 4}) {
+            for (final int invalid : new int[]{-1, Integer.MAX_VALUE}) {
+                final byte[] corrupt = saved.clone();
+                ByteBuffer.wrap(corrupt).putInt(offset, invalid);
+                Files.write(cacheFile, corrupt);
+                assertNull("Corrupt cache is not used.", newCache(cacheFile, "key", false).get(usageFile.getAbsolutePath()));
+            }
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.github.mikkoi.maven.plugins.enforcer.rule.propertyusage;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ScanStatisticsTest {
+
+    @Test
+    public void reportsPhasesAndCounters() {
+        final ScanStatistics statistics = new ScanStatistics();
+        statistics.endPhase(ScanStatistics.PHASE_DISCOVERY, statistics.startPhase());
+        statistics.endPhase(ScanStatistics.PHASE_DEFINITIONS, statistics.startPhase());
+        statistics.fileScanned(100);
+        statistics.fileScanned(50);
+        statistics.patternsCompiled(3);
+        statistics.matchFound();
+        assertEquals("Files counted.", 2, statistics.getFilesScanned());
+        assertEquals("Bytes counted.", 150, statistics.getBytesRead());
+        final String summary = statistics.summary();
+        assertTrue("Phases in order: " + summary, summary.indexOf("discovery") < summary.indexOf("definitions"));
+        assertTrue("Counters in summary: " + summary, summary.contains("2 files scanned") && summary.contains("3 patterns compiled"));
+        final String json = statistics.toJson();
+        assertTrue("Phases in JSON: " + json, json.contains("\"discovery\": ") && json.contains("\"definitions\": "));
+        assertTrue("Counters in JSON: " + json, json.contains("\"bytesRead\": 150,") && json.contains("\"cacheMisses\": 0\n"));
+    }
+}
@@ -0,0 +1,56 @@
+package com.github.mikkoi.maven.plugins.enforcer.rule.propertyusage;
+
+import org.apache.maven.enforcer.rule.api.EnforcerLogger;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.attribute.FileTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class SharedDefinitionsTest {
+
+    @Rule
+    public TemporaryFolder testDir = new TemporaryFolder();
+
+    public EnforcerLogger enforcerLogger = TestEnforcerLoggerFactory.createTestEnforcerLogger();
+
+    @Test
+    public void fileIsParsedOncePerSession() throws Exception {
+        final File propertiesFile = testDir.newFile("shared.properties");
+        Files.write(propertiesFile.toPath(), "a.b=1\nc.d=2\n".getBytes(StandardCharsets.UTF_8));
+        final String filename = propertiesFile.getAbsolutePath();
+        final SharedDefinitions shared = new SharedDefinitions();
+
+        final PropertyFiles first = new PropertyFiles(enforcerLogger, StandardCharsets.UTF_8);
+        first.setSharedDefinitions(shared);
+        assertEquals("Definitions read.", 2,
+                first.readPropertiesFromFilesGetDefinitions(Collections.singleton(filename)).size());
+        final List<PropertyDefinition> definitions = shared.get(filename, StandardCharsets.UTF_8);
+        assertEquals("Definitions shared.", 2, definitions.size());
+
+        final ScanStatistics statistics = new ScanStatistics();
+        final PropertyFiles second = new PropertyFiles(enforcerLogger, StandardCharsets.UTF_8);
+        second.setSharedDefinitions(shared);
+        second.setStatistics(statistics);
+        final Map<String, Set<PropertyDefinition>> read = second.readPropertiesFromFilesGetDefinitions(Collections.singleton(filename));
+        assertEquals("Same definitions.", 2, read.size());
+        assertEquals("File not read again.", 0, statistics.getFilesScanned());
+        assertSame("Entry not replaced.", definitions, shared.get(filename, StandardCharsets.UTF_8));
+        assertNull("Other charset is another entry.", shared.get(filename, StandardCharsets.ISO_8859_1));
+
+        Files.write(propertiesFile.toPath(), "a.b=1\n".getBytes(StandardCharsets.UTF_8));
+        Files.setLastModifiedTime(propertiesFile.toPath(), FileTime.fromMillis(System.currentTimeMillis() + 10_000));
+        assertNull("Changed file is not shared.", shared.get(filename, StandardCharsets.UTF_8));
+    }
+}
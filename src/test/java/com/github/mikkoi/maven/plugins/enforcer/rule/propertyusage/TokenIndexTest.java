@@ -0,0 +1,65 @@
+package com.github.mikkoi.maven.plugins.enforcer.rule.propertyusage;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class TokenIndexTest {
+
+    private static final String PLACEHOLDER = "REPLACE_THIS";
+
+    private static final List<String> PROPERTIES = Arrays.asList("a", "ab", "a.b", "b-c", "a.b.c", "c.a");
+
+    @Test
+    public void acceptsOnlyPlainTextTemplates() {
+        final UsageMatcher matcher = new UsageMatcher(Collections.singleton("\"REPLACE_THIS\""), PLACEHOLDER, PROPERTIES);
+        assertNotNull("Default template.",
+                TokenIndex.compile(Collections.singleton("\"REPLACE_THIS\""), PLACEHOLDER, matcher));
+        assertNotNull("Escaped metacharacters.",
+                TokenIndex.compile(Collections.singleton("getProperty\\(\"REPLACE_THIS\"\\)"), PLACEHOLDER, matcher));
+        assertNull("Regexp around the placeholder.",
+                TokenIndex.compile(Collections.singleton("\"?REPLACE_THIS\""), PLACEHOLDER, matcher));
+        assertNull("Nothing after the placeholder.",
+                TokenIndex.compile(Collections.singleton("\"REPLACE_THIS"), PLACEHOLDER, matcher));
+        assertNull("Suffix starting with a character of a property name.",
+                TokenIndex.compile(Collections.singleton("\"REPLACE_THIS.x\""), PLACEHOLDER, matcher));
+        assertNull("Placeholder twice.",
+                TokenIndex.compile(Collections.singleton("REPLACE_THIS=\"REPLACE_THIS\""), PLACEHOLDER, matcher));
+    }
+
+    @Test
+    public void findsLikeExpandedTemplates() {
+        final List<String> templates = Arrays.asList("\"REPLACE_THIS\"", "\\$\\{REPLACE_THIS\\}", "getProperty\\(\"REPLACE_THIS\"\\)");
+        final List<String> literals = Arrays.asList("\"_\"", "${_}", "getProperty(\"_\")");
+        final String[] pieces = {"a", "b", "c", ".", "-", "\"", "${", "}", "getProperty(\"", "\")", " "};
+        final UsageMatcher matcher = new UsageMatcher(templates, PLACEHOLDER, PROPERTIES);
+        final TokenIndex index = TokenIndex.compile(templates, PLACEHOLDER, matcher);
+        assertNotNull("Templates are plain text.", index);
+        final Random random = new Random(11);
+        final BitSet found = new BitSet();
+        for (int i = 0; i < 5000; i++) {
+            final StringBuilder text = new StringBuilder();
+            final int length = random.nextInt(10);
+            for (int j = 0; j < length; j++) {
+                text.append(pieces[random.nextInt(pieces.length)]);
+            }
+            final BitSet expected = new BitSet();
+            for (int property = 0; property < PROPERTIES.size(); property++) {
+                for (final String literal : literals) {
+                    if (text.toString().contains(literal.replace("_", PROPERTIES.get(property)))) {
+                        expected.set(property);
+                    }
+                }
+            }
+            assertEquals("Properties in '" + text + "'.", expected, index.find(text, found));
+        }
+    }
+}
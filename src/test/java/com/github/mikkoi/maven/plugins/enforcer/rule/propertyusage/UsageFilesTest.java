@@ -0,0 +1,204 @@
+package com.github.mikkoi.maven.plugins.enforcer.rule.propertyusage;
+
+import com.github.mikkoi.maven.plugins.enforcer.rule.propertyusage.configuration.FileSpecs;
+import org.apache.maven.enforcer.rule.api.EnforcerLogger;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class UsageFilesTest {
+
+    @Rule
+    public TemporaryFolder testDir = new TemporaryFolder();
+
+    public EnforcerLogger enforcerLogger = TestEnforcerLoggerFactory.createTestEnforcerLogger();
+
+    private final Collection<String> usageFiles = FileSpecs.getAbsoluteFilenames(
+            Collections.singleton("src/test/java/**/App*.java"), Paths.get("").toAbsolutePath(), enforcerLogger);
+
+    private final Set<String> templates = new HashSet<>(Arrays.asList(
+            "properties\\.getProperty\\(\"REPLACE_THIS\"\\)",
+            "\\$\\{REPLACE_THIS\\}"
+    ));
+
+    private final Set<String> properties = new HashSet<>(Arrays.asList(
+            "my.property.value",
+            "other.prop.val",
+            "also-prop.val",
+            "my-third-val",
+            "not.used.anywhere"
+    ));
+
+    private static Set<String> locations(final Collection<UsageFiles.UsageLocation> usageLocations) {
+        return usageLocations.stream()
+                .map(loc -> loc.getProperty() + "@" + Paths.get(loc.getFilename()).getFileName() + ":" + loc.getRow())
+                .collect(Collectors.toSet());
+    }
+
+    @Test
+    public void readDefinedUsagesFromFiles() throws Exception {
+        final UsageMatcher matcher = new UsageMatcher(templates, "REPLACE_THIS", properties);
+        final Set<String> expected = new HashSet<>(Arrays.asList(
+                "my.property.value",
+                "other.prop.val",
+                "also-prop.val",
+                "my-third-val"
+        ));
+        assertEquals("Found properties are as expected.", expected,
+                new UsageFiles(enforcerLogger).readDefinedUsagesFromFiles(usageFiles, matcher, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void readDefinedUsagesFromFilesStopsWhenAllFound() throws Exception {
+        final UsageMatcher matcher = new UsageMatcher(templates, "REPLACE_THIS", Collections.singleton("my.property.value"));
+        assertEquals("Found properties are as expected.", Collections.singleton("my.property.value"),
+                new UsageFiles(enforcerLogger).readDefinedUsagesFromFiles(usageFiles, matcher, StandardCharsets.UTF_8));
+        assertTrue("All properties resolved.", matcher.allResolved());
+        assertTrue("No candidates left.", matcher.candidates("\"my.property.value\"").isEmpty());
+    }
+
+    @Test
+    public void candidatesIncludeEveryPossibleRegexpMatch() {
+        final UsageMatcher dotted = new UsageMatcher(Collections.singleton("\"REPLACE_THIS\""), "REPLACE_THIS", Collections.singleton("my.prop"));
+        final String anyCharForDot = "String s = \"myXprop\";";
+        assertTrue("Dot in a name matches any character.", dotted.candidates(anyCharForDot).get(0) && dotted.verify(0, anyCharForDot));
+        assertTrue("Text which cannot match is not a candidate.", dotted.candidates("String s = \"my.other\";").isEmpty());
+        final UsageMatcher caseInsensitive = new UsageMatcher(Collections.singleton("(?i)getString\\(\"REPLACE_THIS\"\\)"), "REPLACE_THIS", Collections.singleton("my.prop"));
+        final String upperCase = "GETSTRING(\"MY.PROP\")";
+        assertTrue("Inline flags make every text a candidate.",
+                caseInsensitive.candidates(upperCase).get(0) && caseInsensitive.verify(0, upperCase));
+    }
+
+    @Test
+    public void parallelScanGivesSameResults() throws Exception {
+        final Set<String> templatesForAll = templates.stream()
+                .map(tpl -> tpl.replaceAll("REPLACE_THIS", "([a-z0-9\\\\-\\\\.]{1,}?)"))
+                .collect(Collectors.toSet());
+        final UsageFiles sequential = new UsageFiles(enforcerLogger, 1);
+        final UsageFiles parallel = new UsageFiles(enforcerLogger, 4);
+        assertEquals("Defined usages are the same.",
+                sequential.readDefinedUsagesFromFiles(usageFiles, new UsageMatcher(templates, "REPLACE_THIS", properties), StandardCharsets.UTF_8),
+                parallel.readDefinedUsagesFromFiles(usageFiles, new UsageMatcher(templates, "REPLACE_THIS", properties), StandardCharsets.UTF_8));
+        assertEquals("All usages are the same.",
+                locations(sequential.readAllUsagesFromFiles(usageFiles, templatesForAll, StandardCharsets.UTF_8)),
+                locations(parallel.readAllUsagesFromFiles(usageFiles, templatesForAll, StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    public void memoryMappedScanGivesSameResults() throws Exception {
+        final UsageFiles mapped = new UsageFiles(enforcerLogger);
+        mapped.setMemoryMapped(true);
+        assertEquals("Defined usages are the same.",
+                new UsageFiles(enforcerLogger).readDefinedUsagesFromFiles(usageFiles, new UsageMatcher(templates, "REPLACE_THIS", properties), StandardCharsets.UTF_8),
+                mapped.readDefinedUsagesFromFiles(usageFiles, new UsageMatcher(templates, "REPLACE_THIS", properties), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void tokenIndexGivesSameResults() throws Exception {
+        final UsageMatcher matcher = new UsageMatcher(templates, "REPLACE_THIS", properties);
+        final UsageFiles indexed = new UsageFiles(enforcerLogger);
+        indexed.setTokenIndex(TokenIndex.compile(templates, "REPLACE_THIS", matcher));
+        assertEquals("Defined usages are the same.",
+                new UsageFiles(enforcerLogger).readDefinedUsagesFromFiles(usageFiles, new UsageMatcher(templates, "REPLACE_THIS", properties), StandardCharsets.UTF_8),
+                indexed.readDefinedUsagesFromFiles(usageFiles, matcher, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void onePassGivesSameResultsAndReadsFilesOnce() throws Exception {
+        final List<Pattern> patterns = templates.stream()
+                .map(tpl -> Pattern.compile(tpl.replaceAll("REPLACE_THIS", "([a-z0-9\\\\-\\\\.]{1,}?)"),
+                        Pattern.COMMENTS | Pattern.UNICODE_CHARACTER_CLASS))
+                .collect(Collectors.toList());
+        final ScanStatistics statistics = new ScanStatistics();
+        final UsageFiles onePass = new UsageFiles(enforcerLogger);
+        onePass.setStatistics(statistics);
+        final UsageFiles.ScanResult result = onePass.readUsagesFromFiles(usageFiles,
+                new UsageMatcher(templates, "REPLACE_THIS", properties), patterns, StandardCharsets.UTF_8);
+        final UsageFiles separate = new UsageFiles(enforcerLogger);
+        assertEquals("Defined usages are the same.",
+                separate.readDefinedUsagesFromFiles(usageFiles, new UsageMatcher(templates, "REPLACE_THIS", properties), StandardCharsets.UTF_8),
+                result.getDefinedUsages());
+        assertEquals("All usages are the same.",
+                locations(separate.readAllUsagesFromFiles(usageFiles, patterns, StandardCharsets.UTF_8)),
+                locations(result.getAllUsages()));
+        assertEquals("Every file read once.", usageFiles.size(), statistics.getFilesScanned());
+    }
+
+    @Test
+    public void readAheadGivesSameResults() throws Exception {
+        for (final int threads : new int[]{1, 3}) {
+            final UsageFiles readAhead = new UsageFiles(enforcerLogger, threads);
+            readAhead.setReadAhead(new FileReadAhead(enforcerLogger, 2, 2, false));
+            assertEquals("Defined usages are the same with " + threads + " threads.",
+                    new UsageFiles(enforcerLogger).readDefinedUsagesFromFiles(usageFiles, new UsageMatcher(templates, "REPLACE_THIS", properties), StandardCharsets.UTF_8),
+                    readAhead.readDefinedUsagesFromFiles(usageFiles, new UsageMatcher(templates, "REPLACE_THIS", properties), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    public void readAheadOnVirtualThreadsGivesSameResults() throws Exception {
+        // Falls back to platform threads if the JDK has no virtual threads.
+        final Set<String> patterns = Collections.singleton("\\$\\{([a-z.-]+)\\}");
+        final UsageFiles readAhead = new UsageFiles(enforcerLogger, 2);
+        readAhead.setReadAhead(new FileReadAhead(enforcerLogger, 100, 1000, true));
+        assertEquals("All usages are the same.",
+                locations(new UsageFiles(enforcerLogger).readAllUsagesFromFiles(usageFiles, patterns, StandardCharsets.UTF_8)),
+                locations(readAhead.readAllUsagesFromFiles(usageFiles, patterns, StandardCharsets.UTF_8)));
+    }
+
+    @Test(expected = NoSuchFileException.class)
+    public void readAheadReportsMissingFile() throws Exception {
+        final UsageFiles readAhead = new UsageFiles(enforcerLogger, 1);
+        readAhead.setReadAhead(new FileReadAhead(enforcerLogger, 1, 2, false));
+        final List<String> files = new ArrayList<>(usageFiles);
+        files.add(0, "src/test/java/no/such/File.java");
+        readAhead.readAllUsagesFromFiles(files, Collections.singleton("\\$\\{([a-z.-]+)\\}"), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void allUsagesPerLineFindsEveryMatchWithColumn() throws Exception {
+        final File usageFile = testDir.newFile();
+        Files.write(usageFile.toPath(), "a ${x.y} b ${z} ${x.y}\n${z}\n".getBytes(StandardCharsets.UTF_8));
+        final Set<String> patterns = Collections.singleton("\\$\\{([a-z.-]+)\\}");
+        final List<String> filenames = Collections.singletonList(usageFile.getAbsolutePath());
+        assertEquals("First usage per line.", 2,
+                new UsageFiles(enforcerLogger).readAllUsagesFromFiles(filenames, patterns, StandardCharsets.UTF_8).size());
+        final UsageFiles files = new UsageFiles(enforcerLogger);
+        files.setAllUsagesPerLine(true);
+        final Set<String> found = files.readAllUsagesFromFiles(filenames, patterns, StandardCharsets.UTF_8).stream()
+                .map(loc -> loc.getProperty() + "@" + loc.getRow() + ":" + loc.getColumn())
+                .collect(Collectors.toSet());
+        assertEquals("Every usage.", new HashSet<>(Arrays.asList("x.y@1:5", "z@1:14", "x.y@1:19", "z@2:3")), found);
+    }
+
+    @Test
+    public void statisticsCountFilesAndMatches() throws Exception {
+        final ScanStatistics statistics = new ScanStatistics();
+        final UsageFiles files = new UsageFiles(enforcerLogger);
+        files.setStatistics(statistics);
+        final Collection<UsageFiles.UsageLocation> found = files.readAllUsagesFromFiles(usageFiles,
+                Collections.singleton("\\$\\{([a-z.-]+)\\}"), StandardCharsets.UTF_8);
+        assertEquals("Every file scanned.", usageFiles.size(), statistics.getFilesScanned());
+        assertTrue("Bytes counted.", statistics.getBytesRead() > 0);
+        assertEquals("Every usage counted.", found.size(), statistics.getMatchesFound());
+        assertEquals("Template compiled.", 1, statistics.getPatternsCompiled());
+    }
+}
@@ -0,0 +1,60 @@
+package com.github.mikkoi.maven.plugins.enforcer.rule.propertyusage;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class UsageTableTest {
+
+    private static List<String> describe(final UsageTable table) {
+        final List<String> described = new ArrayList<>();
+        for (int usage = 0; usage < table.size(); usage++) {
+            final UsageFiles.UsageLocation location = table.getLocation(usage);
+            described.add(location.getProperty() + "@" + location.getFilename() + ":" + location.getRow() + ":" + location.getColumn());
+        }
+        return described;
+    }
+
+    @Test
+    public void addsUsagesOfOtherTablesWithOwnIds() {
+        final UsageTable first = new UsageTable();
+        final int a = first.fileId("A.java");
+        first.add(a, 1, 5, first.propertyId("x"));
+        first.add(a, 1, 20, first.propertyId("y"));
+        final UsageTable second = new UsageTable();
+        final int b = second.fileId("B.java");
+        second.add(b, 7, 3, second.propertyId("y"));
+        second.add(b, 8, 3, second.propertyId("z"));
+
+        final UsageTable all = new UsageTable();
+        all.addAll(first);
+        all.addAll(second);
+        assertEquals("Every usage.", 4, all.size());
+        assertEquals("Every file once.", 2, all.getFileCount());
+        assertEquals("Every property once.", 3, all.getPropertyCount());
+        final List<String> expected = new ArrayList<>(describe(first));
+        expected.addAll(describe(second));
+        assertEquals("Same usages.", expected, describe(all));
+    }
+
+    @Test
+    public void cacheCodecKeepsEveryUsage() throws Exception {
+        final UsageTable table = new UsageTable();
+        final int file = table.fileId("App.java");
+        for (int line = 1; line <= 100; line++) {
+            table.add(file, line, line % 13 + 1, table.propertyId("property." + line % 7));
+        }
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        UsageFiles.USAGE_TABLE_CODEC.write(new DataOutputStream(bytes), table);
+        final UsageTable read = UsageFiles.USAGE_TABLE_CODEC.read(
+                new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        assertEquals("Same usages.", describe(table), describe(read));
+    }
+}
@@ -14,6 +14,7 @@ import java.util.stream.Collectors;
 
 import static com.github.mikkoi.maven.plugins.enforcer.rule.propertyusage.configuration.FileSpecs.absoluteCwdAndFile;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 public class FileSpecsTest {
 
@@ -83,6 +84,25 @@ public class FileSpecsTest {
 
     // TODO Collect the log, verify log entry:
     // [error] File spec '' is blank. Error in configuration!
+    @Test
+    public void directorySpecKeepsDefaultExcludes() throws Exception {
+        final File dir = testDir.newFolder("props");
+        new File(dir, "app.properties").createNewFile();
+        new File(dir, "skip.properties").createNewFile();
+        new File(dir, ".git").mkdir();
+        new File(dir, ".git/config").createNewFile();
+        for (final Collection<String> excludes : Arrays.<Collection<String>>asList(
+                Collections.emptyList(), Collections.singletonList("skip.properties"))) {
+            final Set<String> names = FileSpecs.getAbsoluteFilenames(Collections.singletonList(dir.getAbsolutePath()),
+                            excludes, Paths.get("").toAbsolutePath(), enforcerLogger).stream()
+                    .map(name -> new File(name).getName())
+                    .collect(Collectors.toSet());
+            assertTrue("Default excludes apply with excludes " + excludes + ": " + names, !names.contains("config"));
+            assertTrue("File found with excludes " + excludes + ".", names.contains("app.properties"));
+            assertEquals("Configured excludes apply.", !excludes.isEmpty(), !names.contains("skip.properties"));
+        }
+    }
+
     @Test
     public void getErrorWhenAnEmptyStringIsGiven() throws Exception {
         SystemStreamLog slog = new SystemStreamLog();
@@ -0,0 +1,105 @@
+package com.github.mikkoi.maven.plugins.enforcer.rule.propertyusage.configuration;
+
+import com.github.mikkoi.maven.plugins.enforcer.rule.propertyusage.TestEnforcerLoggerFactory;
+import org.apache.maven.enforcer.rule.api.EnforcerLogger;
+import org.codehaus.plexus.util.DirectoryScanner;
+import org.junit.Assume;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+
+public class FileTreeScannerTest {
+
+    @Rule
+    public TemporaryFolder testDir = new TemporaryFolder();
+
+    public EnforcerLogger enforcerLogger = TestEnforcerLoggerFactory.createTestEnforcerLogger();
+
+    private static Set<String> directoryScanner(final Path basedir, final Collection<String> includes) {
+        final Set<String> found = new HashSet<>();
+        for (final String include : includes) {
+            final DirectoryScanner ds = new DirectoryScanner();
+            ds.setCaseSensitive(true);
+            ds.setFollowSymlinks(true);
+            ds.addDefaultExcludes();
+            ds.setBasedir(basedir.toString());
+            ds.setIncludes(new String[]{include});
+            ds.scan();
+            for (final String file : ds.getIncludedFiles()) {
+                found.add(Paths.get(basedir.toString(), file).toAbsolutePath().toString());
+            }
+        }
+        return found;
+    }
+
+    @Test
+    public void findsSameFilesAsDirectoryScanner() {
+        final Path basedir = Paths.get("").toAbsolutePath();
+        for (final Collection<String> includes : Arrays.asList(
+                Collections.singletonList("src/test/java/**/*.java"),
+                Arrays.asList("src/**/*.properties", "**/*.md"),
+                Collections.singletonList("src/test/"),
+                Arrays.asList("**/App*.java", "src/test/resources/*/*.properties"),
+                Collections.singletonList("%regex[src.test.resources.*\\.properties]"))) {
+            assertEquals("Same files for " + includes + ".",
+                    directoryScanner(basedir, includes),
+                    new HashSet<>(new FileTreeScanner(includes, Collections.emptyList(), enforcerLogger).scan(basedir)));
+        }
+    }
+
+    @Test
+    public void defaultExcludesAreApplied() throws Exception {
+        final Path basedir = testDir.getRoot().toPath();
+        Files.createDirectories(basedir.resolve(".git/objects"));
+        Files.createDirectories(basedir.resolve("src"));
+        Files.write(basedir.resolve(".git/objects/Excluded.java"), "".getBytes(StandardCharsets.UTF_8));
+        Files.write(basedir.resolve("src/Included.java"), "".getBytes(StandardCharsets.UTF_8));
+        assertEquals("Only the file outside .git is found.",
+                Collections.singleton(basedir.resolve("src/Included.java").toString()),
+                new HashSet<>(new FileTreeScanner(Collections.singleton("**/*.java"), Collections.emptyList(), enforcerLogger).scan(basedir)));
+    }
+
+    @Test
+    public void excludedDirectoryIsSkipped() throws Exception {
+        final Path basedir = testDir.getRoot().toPath();
+        Files.createDirectories(basedir.resolve("src/generated/deep"));
+        Files.write(basedir.resolve("src/generated/deep/Excluded.java"), "".getBytes(StandardCharsets.UTF_8));
+        Files.write(basedir.resolve("src/Included.java"), "".getBytes(StandardCharsets.UTF_8));
+        Files.write(basedir.resolve("src/Excluded.java"), "".getBytes(StandardCharsets.UTF_8));
+        assertEquals("Files under the excluded directory and matching the exclude are left out.",
+                Collections.singleton(basedir.resolve("src/Included.java").toString()),
+                new HashSet<>(new FileTreeScanner(Collections.singleton("**/*.java"),
+                        Arrays.asList("**/generated/**", "**/Excluded.java"), enforcerLogger).scan(basedir)));
+    }
+
+    @Test
+    public void unreadableDirectoryIsSkipped() throws Exception {
+        final Path basedir = testDir.getRoot().toPath();
+        Files.createDirectories(basedir.resolve("src/locked"));
+        Files.write(basedir.resolve("src/locked/Hidden.java"), "".getBytes(StandardCharsets.UTF_8));
+        Files.write(basedir.resolve("src/Included.java"), "".getBytes(StandardCharsets.UTF_8));
+        final File locked = basedir.resolve("src/locked").toFile();
+        Assume.assumeTrue("Permissions can be removed.", locked.setReadable(false, false));
+        try {
+            Assume.assumeFalse("Directory is really unreadable.", Files.isReadable(locked.toPath()));
+            assertEquals("Files in the unreadable directory are skipped.",
+                    Collections.singleton(basedir.resolve("src/Included.java").toString()),
+                    new HashSet<>(new FileTreeScanner(Collections.singleton("**/*.java"), Collections.emptyList(), enforcerLogger).scan(basedir)));
+        } finally {
+            locked.setReadable(true, false);
+        }
+    }
+}